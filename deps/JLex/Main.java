@@ -5,6 +5,27 @@
   See below for copyright notice, license, and disclaimer.
   New releases from http://www.cs.princeton.edu/~appel/modern/java/JLex/
 
+  Local changes:
+   Added the %compress directive, which emits the transition table as a
+     comb vector with default rows (yy_base, yy_def, yy_nxt, yy_chk)
+     in place of yy_rmap and yy_nxt[][].  The default output is unchanged.
+   Added the %switch directive, which emits the transitions as code, a
+     switch on the state with nested range tests on the lookahead, in
+     place of the tables; it takes precedence over %compress.
+   Rewrote the splitting of CMinimize.minimize() on int arrays; the
+     minimized DFA and its numbering are unchanged.  Added the %minimal
+     directive, which minimizes by Hopcroft's algorithm instead and so
+     also merges the few equivalent states the default splitting keeps.
+   Rewrote the subset construction of CNfa2Dfa on CNfa labels: the
+     epsilon closure of each NFA state is computed once, and DFA states
+     are looked up by their sorted label sets.  The DFA is unchanged.
+   Made SparseBitSet dense while that pays off: a set is a plain array
+     of 64-bit words, and switches to the sparse form only when it gets
+     sparse, as unicode classes do.  Added BitSetBenchmark, which times
+     the set operations on the sets of a specification.
+   Added the %parallel directive, which makes the sets of NFA states of
+     the lexical states on several threads, then numbers the DFA states
+     as without it, so that the output is the same.
   Version 1.2.6, 2/7/03, [C. Scott Ananian]
    Renamed 'assert' function 'ASSERT' to accomodate Java 1.4's new keyword.
    Fixed a bug which certain forms of comment in the JLex directives section
@@ -179,7 +200,6 @@ import java.lang.Integer;
 import java.lang.Character;
 
 import java.util.Enumeration;
-import java.util.Stack;
 import java.util.Hashtable;
 import java.util.Vector;
 
@@ -291,6 +311,10 @@ class CSpec
   boolean m_unix;
   boolean m_public;
   boolean m_ignorecase;
+  boolean m_compress;
+  boolean m_switch;
+  boolean m_minimal;
+  boolean m_parallel;
 
   char m_init_code[];
   int m_init_read;
@@ -373,6 +397,10 @@ class CSpec
         m_public = false;
 	m_yyeof = false;
 	m_ignorecase = false;
+	m_compress = false;
+	m_switch = false;
+	m_minimal = false;
+	m_parallel = false;
 
 	/* Initialize variables for JLex runtime options. */
 	m_verbose = true;
@@ -1212,6 +1240,12 @@ class CEmit
 	  }
 	m_outstream.println("\t};");
 
+	if (m_spec.m_switch)
+	  {
+	    emit_switch_next();
+	    return;
+	  }
+
 	// CSA: modified yy_cmap to use string packing 9-Aug-1999
 	int[] yy_cmap = new int[m_spec.m_ccls_map.length];
 	for (i = 0; i < m_spec.m_ccls_map.length; ++i)
@@ -1221,6 +1255,12 @@ class CEmit
 	m_outstream.println(")[0];");
 	m_outstream.println();
 
+	if (m_spec.m_compress)
+	  {
+	    emit_comb_table();
+	    return;
+	  }
+
 	// CSA: modified yy_rmap to use string packing 9-Aug-1999
 	m_outstream.print("\tprivate int yy_rmap[] = unpackFromString(");
 	emit_table_as_string(new int[][] { m_spec.m_row_map });
@@ -1244,6 +1284,337 @@ class CEmit
 	m_outstream.println();
       }
 
+  /***************************************************************
+    Function: emit_comb_table
+    Description: Emits the transition table packed as a comb
+    vector (%compress), in place of yy_rmap and yy_nxt.
+    A row may take another row as its default and keep only the
+    entries where the two differ; a row with no default keeps
+    its non-error entries.  The rows are then overlaid in one
+    array, each at a displacement (its base) where its entries
+    fall in free slots, densest first at the first base which
+    fits.  The generated scanner keeps
+      yy_base[s]  the base of the row of state s
+      yy_def[s]   the base of the default of that row
+      yy_nxt[i]   the next state of slot i
+      yy_chk[i]   the base of the row owning slot i (-1 if free)
+    No two rows share a base, so the next state of state s on
+    column c is yy_nxt[yy_base[s] + c] if the yy_chk entry of
+    that slot is yy_base[s], else the same lookup in the row of
+    base yy_def[s], else YY_F.  A row with no default has an
+    empty row as its default, so only one level is ever looked
+    up and the lookup never needs to test for a missing default.
+    **************************************************************/
+  private void emit_comb_table
+    (
+     )
+      throws java.io.IOException
+      {
+	int nrows = m_spec.m_dtrans_vector.size();
+	int ncols = m_spec.m_dtrans_ncols;
+	int empty = nrows; /* The empty row, default of no default. */
+	int rows[][] = new int[nrows + 1][];
+	int row_def[] = new int[nrows + 1];
+	boolean stored[][] = new boolean[nrows + 1][ncols];
+	int row_size[] = new int[nrows + 1];
+	int row_base[] = new int[nrows + 1];
+	int order[] = new int[nrows + 1];
+	int templates[] = new int[nrows];
+	int ntemplates = 0;
+	int i;
+	int j;
+	int c;
+	int r;
+	int n;
+
+	for (r = 0; r < nrows; ++r)
+	  {
+	    rows[r] = ((CDTrans) m_spec.m_dtrans_vector.elementAt(r)).m_dtrans;
+	    for (c = 0; c < ncols; ++c)
+	      {
+		if (CDTrans.F != rows[r][c])
+		  {
+		    ++row_size[r];
+		  }
+	      }
+	  }
+	rows[empty] = new int[ncols];
+	java.util.Arrays.fill(rows[empty], CDTrans.F);
+	row_def[empty] = empty;
+
+	/* Rows by decreasing number of entries. */
+	i = 0;
+	for (n = ncols; n >= 0; --n)
+	  {
+	    for (r = 0; r <= nrows; ++r)
+	      {
+		if (n == row_size[r])
+		  {
+		    order[i++] = r;
+		  }
+	      }
+	  }
+
+	/* Choose the defaults: the row among the rows with no
+	   default which differs from it in the fewest entries. */
+	for (i = 0; i <= nrows; ++i)
+	  {
+	    r = order[i];
+	    if (empty == r)
+	      {
+		continue;
+	      }
+	    row_def[r] = empty;
+	    for (j = 0; j < ntemplates; ++j)
+	      {
+		n = 0;
+		for (c = 0; c < ncols && n < row_size[r]; ++c)
+		  {
+		    if (rows[r][c] != rows[templates[j]][c])
+		      {
+			++n;
+		      }
+		  }
+		if (n < row_size[r])
+		  {
+		    row_size[r] = n;
+		    row_def[r] = templates[j];
+		  }
+	      }
+	    if (empty == row_def[r])
+	      {
+		templates[ntemplates++] = r;
+	      }
+	    for (c = 0; c < ncols; ++c)
+	      {
+		stored[r][c] = (rows[r][c] != rows[row_def[r]][c]);
+	      }
+	  }
+
+	/* Pack the rows by decreasing number of stored entries. */
+	i = 0;
+	for (n = ncols; n >= 0; --n)
+	  {
+	    for (r = 0; r <= nrows; ++r)
+	      {
+		if (n == row_size[r])
+		  {
+		    order[i++] = r;
+		  }
+	      }
+	  }
+	int nxt[] = new int[nrows + 1 + ncols];
+	int chk[] = new int[nrows + 1 + ncols];
+	boolean taken[] = new boolean[nrows + 1 + ncols];
+	java.util.Arrays.fill(chk, -1);
+	int length = 0;
+	for (i = 0; i <= nrows; ++i)
+	  {
+	    r = order[i];
+	    int base = 0;
+	    while (true)
+	      {
+		if (base + ncols > nxt.length)
+		  {
+		    n = nxt.length;
+		    nxt = java.util.Arrays.copyOf(nxt, 2 * (base + ncols));
+		    taken = java.util.Arrays.copyOf(taken, nxt.length);
+		    chk = java.util.Arrays.copyOf(chk, nxt.length);
+		    java.util.Arrays.fill(chk, n, nxt.length, -1);
+		  }
+		if (false == taken[base])
+		  {
+		    for (c = 0; c < ncols; ++c)
+		      {
+			if (stored[r][c] && -1 != chk[base + c])
+			  {
+			    break;
+			  }
+		      }
+		    if (c == ncols)
+		      {
+			break;
+		      }
+		  }
+		++base;
+	      }
+	    taken[base] = true;
+	    row_base[r] = base;
+	    for (c = 0; c < ncols; ++c)
+	      {
+		if (stored[r][c])
+		  {
+		    nxt[base + c] = rows[r][c];
+		    chk[base + c] = base;
+		  }
+	      }
+	    length = Math.max(length, base + ncols);
+	  }
+	nxt = java.util.Arrays.copyOf(nxt, length);
+	chk = java.util.Arrays.copyOf(chk, length);
+	for (i = 0; i < length; ++i)
+	  {
+	    if (-1 == chk[i])
+	      {
+		/* Free slots repeat their neighbour, which packs better. */
+		nxt[i] = i > 0 ? nxt[i - 1] : CDTrans.F;
+	      }
+	  }
+
+	int yy_base[] = new int[m_spec.m_row_map.length];
+	int yy_def[] = new int[m_spec.m_row_map.length];
+	for (i = 0; i < yy_base.length; ++i)
+	  {
+	    yy_base[i] = row_base[m_spec.m_row_map[i]];
+	    yy_def[i] = row_base[row_def[m_spec.m_row_map[i]]];
+	  }
+
+	if (m_spec.m_verbose)
+	  {
+	    System.out.println(nrows * ncols + " transition table entries packed into "
+			       + length + ".");
+	  }
+
+	m_outstream.print("\tprivate int yy_base[] = unpackFromString(");
+	emit_table_as_string(new int[][] { yy_base });
+	m_outstream.println(")[0];");
+	m_outstream.println();
+
+	m_outstream.print("\tprivate int yy_def[] = unpackFromString(");
+	emit_table_as_string(new int[][] { yy_def });
+	m_outstream.println(")[0];");
+	m_outstream.println();
+
+	m_outstream.print("\tprivate int yy_nxt[] = unpackFromString(");
+	emit_table_as_string(new int[][] { nxt });
+	m_outstream.println(")[0];");
+	m_outstream.println();
+
+	m_outstream.print("\tprivate int yy_chk[] = unpackFromString(");
+	emit_table_as_string(new int[][] { chk });
+	m_outstream.println(")[0];");
+	m_outstream.println();
+      }
+
+  /***************************************************************
+    Function: emit_switch_next
+    Description: Emits the transition function yy_next(state,
+    lookahead) as code (%switch), in place of yy_cmap, yy_rmap
+    and yy_nxt: a switch on the state, with a case for each
+    distinct row (shared by the states of that row), which
+    finds the range of lookahead values holding the lookahead
+    by a binary search of nested ifs and returns the next state
+    of that range.  The lookahead values are the characters of
+    the spec and the BOL and EOF pseudo-characters after them;
+    a lookahead past those (a character outside the character
+    set of the spec) has no transition.
+    A spec with many states or character ranges makes a big
+    yy_next, which the JIT may decline to compile; such specs
+    should keep the tables.
+    **************************************************************/
+  private void emit_switch_next
+    (
+     )
+      throws java.io.IOException
+      {
+	int nchars = m_spec.m_ccls_map.length;
+	int nstates = m_spec.m_row_map.length;
+	boolean done[] = new boolean[m_spec.m_dtrans_vector.size()];
+	int lo[] = new int[nchars + 1];
+	int next[] = new int[nchars + 1];
+	int state;
+	int other;
+	int ch;
+	int n;
+
+	m_outstream.println("\tprivate int yy_next (int yy_state, int yy_lookahead) {");
+	m_outstream.println("\t\tswitch (yy_state) {");
+	for (state = 0; state < nstates; ++state)
+	  {
+	    int row = m_spec.m_row_map[state];
+	    if (done[row])
+	      {
+		continue;
+	      }
+	    done[row] = true;
+
+	    /* The ranges of lookahead values of the row. */
+	    int dtrans[] = ((CDTrans) m_spec.m_dtrans_vector.elementAt(row)).m_dtrans;
+	    n = 0;
+	    for (ch = 0; ch < nchars; ++ch)
+	      {
+		int to = dtrans[m_spec.m_col_map[m_spec.m_ccls_map[ch]]];
+		if (0 == n || next[n - 1] != to)
+		  {
+		    lo[n] = ch;
+		    next[n] = to;
+		    ++n;
+		  }
+	      }
+	    if (CDTrans.F != next[n - 1])
+	      {
+		lo[n] = nchars;
+		next[n] = CDTrans.F;
+		++n;
+	      }
+	    if (1 == n)
+	      {
+		/* No transition: left to the default case. */
+		continue;
+	      }
+
+	    for (other = state; other < nstates; ++other)
+	      {
+		if (row == m_spec.m_row_map[other])
+		  {
+		    m_outstream.println("\t\tcase " + other + ":");
+		  }
+	      }
+	    emit_ranges(lo, next, 0, n, "\t\t\t");
+	  }
+	m_outstream.println("\t\tdefault:");
+	m_outstream.println("\t\t\treturn YY_F;");
+	m_outstream.println("\t\t}");
+	m_outstream.println("\t}");
+	m_outstream.println();
+      }
+
+  /***************************************************************
+    Function: emit_ranges
+    Description: Emits the binary search of ranges from .. to - 1
+    of lookahead values, range i starting at lo[i] and going to
+    next state next[i].
+    **************************************************************/
+  private void emit_ranges
+    (
+     int lo[],
+     int next[],
+     int from,
+     int to,
+     String tabs
+     )
+      {
+	if (1 == to - from)
+	  {
+	    if (CDTrans.F == next[from])
+	      {
+		m_outstream.println(tabs + "return YY_F;");
+	      }
+	    else
+	      {
+		m_outstream.println(tabs + "return " + next[from] + ";");
+	      }
+	    return;
+	  }
+
+	int mid = (from + to) / 2;
+	m_outstream.println(tabs + "if (yy_lookahead < " + lo[mid] + ") {");
+	emit_ranges(lo, next, from, mid, tabs + "\t");
+	m_outstream.println(tabs + "} else {");
+	emit_ranges(lo, next, mid, to, tabs + "\t");
+	m_outstream.println(tabs + "}");
+      }
+
   /***************************************************************
     Function: emit_driver
     Description: Output an integer table as a string.  Written by
@@ -1394,6 +1765,11 @@ class CEmit
 	  m_outstream.println("\t\tint yy_last_accept_state = YY_NO_STATE;");
     	  m_outstream.println("\t\tboolean yy_initial = true;");
 	  m_outstream.println("\t\tint yy_this_accept;");
+	  if (m_spec.m_compress && false == m_spec.m_switch)
+	    {
+	      m_outstream.println("\t\tint yy_row;");
+	      m_outstream.println("\t\tint yy_index;");
+	    }
 	  m_outstream.println();
 
 	  m_outstream.println("\t\tyy_mark_start();");
@@ -1417,8 +1793,29 @@ class CEmit
 	  m_outstream.println("\t\t\tyy_next_state = YY_F;");
 	  /*m_outstream.println("\t\t\t\tyy_next_state = "
 				 + "yy_next(yy_state,yy_lookahead);");*/
-	  m_outstream.println("\t\t\tyy_next_state = "
- 	   + "yy_nxt[yy_rmap[yy_state]][yy_cmap[yy_lookahead]];");
+	  if (m_spec.m_switch)
+	    {
+	      m_outstream.println("\t\t\tyy_next_state = "
+				  + "yy_next(yy_state, yy_lookahead);");
+	    }
+	  else if (m_spec.m_compress)
+	    {
+	      m_outstream.println("\t\t\tyy_row = yy_base[yy_state];");
+	      m_outstream.println("\t\t\tyy_index = yy_row + yy_cmap[yy_lookahead];");
+	      m_outstream.println("\t\t\tif (yy_chk[yy_index] == yy_row) "
+				  + "yy_next_state = yy_nxt[yy_index];");
+	      m_outstream.println("\t\t\telse {");
+	      m_outstream.println("\t\t\t\tyy_row = yy_def[yy_state];");
+	      m_outstream.println("\t\t\t\tyy_index = yy_row + yy_cmap[yy_lookahead];");
+	      m_outstream.println("\t\t\t\tif (yy_chk[yy_index] == yy_row) "
+				  + "yy_next_state = yy_nxt[yy_index];");
+	      m_outstream.println("\t\t\t}");
+	    }
+	  else
+	    {
+	      m_outstream.println("\t\t\tyy_next_state = "
+		+ "yy_nxt[yy_rmap[yy_state]][yy_cmap[yy_lookahead]];");
+	    }
 
 	  if (NOT_EDBG)
 	    {
@@ -1615,12 +2012,19 @@ class CBunch
   /***************************************************************
     Member Variables
     **************************************************************/
-  Vector m_nfa_set; /* Vector of CNfa states in dfa state. */
-  SparseBitSet m_nfa_bit; /* BitSet representation of CNfa labels. */
+  int m_nfa_set[]; /* Sorted labels of CNfa states in dfa state. */
+  int m_nfa_size; /* Number of labels in use in m_nfa_set. */
+  int m_hash; /* Hash code of the labels. */
   CAccept m_accept; /* Accepting actions, or null if nonaccepting state. */
   int m_anchor; /* Anchors on regular expression. */
   int m_accept_index; /* CNfa index corresponding to accepting actions. */
 
+  int m_stamp[]; /* Marks the CNfa labels in the set being built. */
+  int m_stamp_now;
+
+  CBunch m_next[]; /* With %parallel, the set reached on each column. */
+  int m_dfa; /* With %parallel, the label of the dfa state of the set. */
+
   /***************************************************************
     Function: CBunch
     Description: Constructor.
@@ -1629,11 +2033,100 @@ class CBunch
     (
      )
       {
-	m_nfa_set = null;
-	m_nfa_bit = null;
+	m_nfa_set = new int[16];
+	m_nfa_size = 0;
+	m_hash = 0;
 	m_accept = null;
 	m_anchor = CSpec.NONE;
 	m_accept_index = -1;
+
+	m_stamp = null;
+	m_stamp_now = 0;
+
+	m_next = null;
+	m_dfa = -1;
+      }
+
+  /***************************************************************
+    Function: CBunch
+    Description: Constructor for the key of a set of CNfa
+    labels in CSpec.m_dfa_sets.
+    **************************************************************/
+  CBunch
+    (
+     int nfa_set[]
+     )
+      {
+	this();
+
+	m_nfa_set = nfa_set;
+	m_nfa_size = nfa_set.length;
+	rehash();
+      }
+
+  /***************************************************************
+    Function: rehash
+    Description: Computes the hash code of the labels,
+    once they are all in.
+    **************************************************************/
+  void rehash
+    (
+     )
+      {
+	int h;
+	int i;
+
+	h = 1;
+	for (i = 0; i < m_nfa_size; ++i)
+	  {
+	    h = 31 * h + m_nfa_set[i];
+	  }
+	m_hash = h;
+      }
+
+  /***************************************************************
+    Function: hashCode
+    **************************************************************/
+  public int hashCode
+    (
+     )
+      {
+	return m_hash;
+      }
+
+  /***************************************************************
+    Function: equals
+    Description: Two bunches are equal if they hold the
+    same set of CNfa labels.
+    **************************************************************/
+  public boolean equals
+    (
+     Object obj
+     )
+      {
+	CBunch bunch;
+	int i;
+
+	if (false == (obj instanceof CBunch))
+	  {
+	    return false;
+	  }
+
+	bunch = (CBunch) obj;
+	if (m_hash != bunch.m_hash || m_nfa_size != bunch.m_nfa_size)
+	  {
+	    return false;
+	  }
+
+	for (i = 0; i < m_nfa_size; ++i)
+	  {
+	    if (m_nfa_set[i] != bunch.m_nfa_set[i])
+	      {
+		return false;
+	      }
+	  }
+
+	return true;
       }
 }
 
@@ -2839,211 +3332,419 @@ class CMinimize
   /***************************************************************
     Function: minimize
     Description: Removes redundant transition table states.
+    By default the states are grouped by split_groups(), which
+    gives the tables JLex always gave; with %minimal they are
+    grouped by hopcroft(), which gives the minimal DFA.
     **************************************************************/
   private void minimize
     (
      )
       {
-	Vector dtrans_group;
-	Vector new_group;
-	int i;
-	int j;
-	int old_group_count;
+	int size;
+	int dtrans[][];
 	int group_count;
-	CDTrans next;
-	CDTrans first;
-	int goto_first;
-	int goto_next;
-	int c;
-	int group_size;
-	boolean added;
+	int i;
 
 	init_groups();
 
-	group_count = m_group.size();
-	old_group_count = group_count - 1;
+	size = m_spec.m_dtrans_vector.size();
+	dtrans = new int[size][];
+	for (i = 0; i < size; ++i)
+	  {
+	    dtrans[i] = ((CDTrans) m_spec.m_dtrans_vector.elementAt(i)).m_dtrans;
+	  }
+	if (m_spec.m_minimal)
+	  {
+	    group_count = hopcroft(dtrans);
+	  }
+	else
+	  {
+	    group_count = split_groups(dtrans);
+	  }
 
-	while (old_group_count != group_count)
+	/* The groups, each in state order. */
+	m_group = new Vector();
+	for (i = 0; i < group_count; ++i)
 	  {
-	    old_group_count = group_count;
+	    m_group.addElement(new Vector());
+	  }
+	for (i = 0; i < size; ++i)
+	  {
+	    ((Vector) m_group.elementAt(m_ingroup[i])).addElement(m_spec.m_dtrans_vector.elementAt(i));
+	  }
 
-	    if (CUtility.DEBUG)
-	      {
-		CUtility.ASSERT(m_group.size() == group_count);
-	      }
+	System.out.println(m_group.size() + " states after removal of redundant states.");
 
-	    for (i = 0; i < group_count; ++i)
-	      {
-		dtrans_group = (Vector) m_group.elementAt(i);
+	if (m_spec.m_verbose
+	    && true == CUtility.OLD_DUMP_DEBUG)
+	  {
+	    System.out.println();
+	    System.out.println("States grouped as follows after minimization");
+	    pgroups();
+	  }
+
+	fix_dtrans();
+      }
 
-		group_size = dtrans_group.size();
-		if (group_size <= 1)
+  /***************************************************************
+    Function: split_groups
+    Description: Splits the groups of init_groups() until each
+    group only holds states which go, on every column, to F or
+    to the same group as its first state, and returns the number
+    of groups.  Pass after pass, the states of a group which do
+    not go where its first state goes move to a new group at the
+    end, as soon as they are found, so that the states compared
+    after them in the same pass already see them moved.
+    This is not Moore's algorithm: a state may leave the group
+    of an equivalent first state because a target was moved
+    earlier in the pass, and the result may keep a few
+    equivalent states apart (one on the C-- scanners).  It is
+    kept as the default because the numbering of the states,
+    and thus every table, depends on the order of the splits.
+    **************************************************************/
+  private int split_groups
+    (
+     int dtrans[][]
+     )
+      {
+	int ncols;
+	int group_count;
+	int old_group_count;
+	int members[][];
+	int group_size[];
+	int i;
+	int j;
+	int c;
+	int first;
+	int next;
+	int kept;
+	int new_group;
+	int goto_first;
+	int goto_next;
+
+	ncols = m_spec.m_dtrans_ncols;
+
+	/* The groups as int arrays, each in state order. */
+	group_count = m_group.size();
+	members = new int[Math.max(group_count, 16)][];
+	group_size = new int[members.length];
+	for (i = 0; i < group_count; ++i)
+	  {
+	    members[i] = new int[((Vector) m_group.elementAt(i)).size()];
+	  }
+	for (i = 0; i < dtrans.length; ++i)
+	  {
+	    members[m_ingroup[i]][group_size[m_ingroup[i]]++] = i;
+	  }
+
+	old_group_count = group_count - 1;
+	while (old_group_count != group_count)
+	  {
+	    old_group_count = group_count;
+
+	    for (i = 0; i < group_count; ++i)
+	      {
+		if (group_size[i] <= 1)
 		  {
 		    continue;
 		  }
 
-		new_group = new Vector();
-		added = false;
-		
-		first = (CDTrans) dtrans_group.elementAt(0);
-		for (j = 1; j < group_size; ++j)
+		first = members[i][0];
+		kept = 1;
+		new_group = -1;
+		for (j = 1; j < group_size[i]; ++j)
 		  {
-		    next = (CDTrans) dtrans_group.elementAt(j);
+		    next = members[i][j];
 
-		    for (c = 0; c < m_spec.m_dtrans_ncols; ++c)
+		    for (c = 0; c < ncols; ++c)
 		      {
-			goto_first = first.m_dtrans[c];
-			goto_next = next.m_dtrans[c];
+			goto_first = dtrans[first][c];
+			goto_next = dtrans[next][c];
 
 			if (goto_first != goto_next
 			    && (goto_first == CDTrans.F
 				|| goto_next == CDTrans.F
 				|| m_ingroup[goto_next] != m_ingroup[goto_first]))
 			  {
-			    if (CUtility.DEBUG)
-			      {
-				CUtility.ASSERT(dtrans_group.elementAt(j) == next);
-			      }
-			    
-			    dtrans_group.removeElementAt(j);
-			    --j;
-			    --group_size;
-			    new_group.addElement(next);
-			    if (false == added)
-			      {
-				added = true;
-				++group_count;
-				m_group.addElement(new_group);
-			      }
-			    m_ingroup[next.m_label] = m_group.size() - 1;
+			    break;
+			  }
+		      }
 
-			    if (CUtility.DEBUG)
-			      {
-				CUtility.ASSERT(m_group.contains(new_group)
-						== true);
-				CUtility.ASSERT(m_group.contains(dtrans_group)
-						== true);
-				CUtility.ASSERT(dtrans_group.contains(first)
-						== true);
-				CUtility.ASSERT(dtrans_group.contains(next)
-						== false);
-				CUtility.ASSERT(new_group.contains(first)
-						== false);
-				CUtility.ASSERT(new_group.contains(next)
-						== true);
-				CUtility.ASSERT(dtrans_group.size() == group_size);
-				CUtility.ASSERT(i == m_ingroup[first.m_label]);
-				CUtility.ASSERT((m_group.size() - 1) 
-						== m_ingroup[next.m_label]);
-			      }
+		    if (c == ncols)
+		      {
+			members[i][kept++] = next;
+			continue;
+		      }
 
-			    break;
+		    if (-1 == new_group)
+		      {
+			new_group = group_count++;
+			if (new_group == members.length)
+			  {
+			    members = java.util.Arrays.copyOf(members, 2 * new_group);
+			    group_size = java.util.Arrays.copyOf(group_size, 2 * new_group);
 			  }
+			members[new_group] = new int[group_size[i] - j];
+			group_size[new_group] = 0;
 		      }
+		    members[new_group][group_size[new_group]++] = next;
+		    m_ingroup[next] = new_group;
 		  }
+		group_size[i] = kept;
 	      }
 	  }
 
-	System.out.println(m_group.size() + " states after removal of redundant states.");
+	return group_count;
+      }
 
-	if (m_spec.m_verbose
-	    && true == CUtility.OLD_DUMP_DEBUG)
+  /***************************************************************
+    Function: hopcroft
+    Description: Splits the groups of init_groups() into the
+    coarsest groups of equivalent states (%minimal), by
+    Hopcroft's O(n k log n) algorithm, and returns the number
+    of groups, numbered in the order of their first state.
+    The initial groups are
+    those of init_groups(), and a further state, which goes to
+    itself on every column, stands for CDTrans.F in a group of
+    its own, so that no state is ever equivalent to F.
+    The states of a group are kept together in elems, from
+    start[g] to end[g] - 1.  A splitter (a group, and every
+    column) marks the states going into it; each group holding
+    marked and unmarked states is split in two, and the new
+    group, or the smaller of the two if the group was not
+    waiting, waits to be a splitter.
+    **************************************************************/
+  private int hopcroft
+    (
+     int dtrans[][]
+     )
+      {
+	int size = dtrans.length;
+	int nstates = size + 1; /* The states, and F. */
+	int ncols = m_spec.m_dtrans_ncols;
+	int elems[] = new int[nstates];
+	int index[] = new int[nstates];
+	int block[] = new int[nstates];
+	int start[] = new int[nstates];
+	int end[] = new int[nstates];
+	int marked[] = new int[nstates];
+	int touched[] = new int[nstates];
+	int splitter[] = new int[nstates];
+	boolean waiting[] = new boolean[nstates];
+	int worklist[] = new int[nstates];
+	int nworklist = 0;
+	int nblocks;
+	int ntouched;
+	int nsplitter;
+	int pred_start[];
+	int pred[];
+	int i;
+	int c;
+	int s;
+	int t;
+	int b;
+	int k;
+
+	/* The predecessors of each state on each column. */
+	pred_start = new int[ncols * nstates + 1];
+	for (s = 0; s < size; ++s)
 	  {
-	    System.out.println();
-	    System.out.println("States grouped as follows after minimization");
-	    pgroups();
+	    for (c = 0; c < ncols; ++c)
+	      {
+		t = dtrans[s][c] == CDTrans.F ? size : dtrans[s][c];
+		++pred_start[c * nstates + t + 1];
+	      }
+	  }
+	for (c = 0; c < ncols; ++c)
+	  {
+	    ++pred_start[c * nstates + size + 1];
+	  }
+	for (i = 0; i < ncols * nstates; ++i)
+	  {
+	    pred_start[i + 1] += pred_start[i];
+	  }
+	pred = new int[pred_start[ncols * nstates]];
+	int fill[] = (int[]) pred_start.clone();
+	for (s = 0; s < nstates; ++s)
+	  {
+	    for (c = 0; c < ncols; ++c)
+	      {
+		t = (s == size || dtrans[s][c] == CDTrans.F) ? size : dtrans[s][c];
+		pred[fill[c * nstates + t]++] = s;
+	      }
 	  }
 
-	fix_dtrans();
+	/* The initial groups, F last. */
+	nblocks = m_group.size() + 1;
+	for (s = 0; s < size; ++s)
+	  {
+	    block[s] = m_ingroup[s];
+	  }
+	block[size] = nblocks - 1;
+	for (s = 0; s < nstates; ++s)
+	  {
+	    ++end[block[s]];
+	  }
+	for (b = 0; b < nblocks; ++b)
+	  {
+	    start[b] = b > 0 ? end[b - 1] : 0;
+	    end[b] += start[b];
+	  }
+	for (b = 0; b < nblocks; ++b)
+	  {
+	    marked[b] = start[b];
+	  }
+	for (s = 0; s < nstates; ++s)
+	  {
+	    index[s] = marked[block[s]]++;
+	    elems[index[s]] = s;
+	  }
+	java.util.Arrays.fill(marked, 0);
+	for (b = 0; b < nblocks; ++b)
+	  {
+	    worklist[nworklist++] = b;
+	    waiting[b] = true;
+	  }
+
+	while (nworklist > 0)
+	  {
+	    b = worklist[--nworklist];
+	    waiting[b] = false;
+	    nsplitter = end[b] - start[b];
+	    System.arraycopy(elems, start[b], splitter, 0, nsplitter);
+
+	    for (c = 0; c < ncols; ++c)
+	      {
+		/* Mark the states going into the splitter on c,
+		   moving them to the front of their groups. */
+		ntouched = 0;
+		for (i = 0; i < nsplitter; ++i)
+		  {
+		    t = splitter[i];
+		    for (k = pred_start[c * nstates + t]; k < pred_start[c * nstates + t + 1]; ++k)
+		      {
+			s = pred[k];
+			int g = block[s];
+			int at = start[g] + marked[g];
+			if (index[s] < at)
+			  {
+			    continue; /* Already marked. */
+			  }
+			if (0 == marked[g])
+			  {
+			    touched[ntouched++] = g;
+			  }
+			elems[index[s]] = elems[at];
+			index[elems[at]] = index[s];
+			elems[at] = s;
+			index[s] = at;
+			++marked[g];
+		      }
+		  }
+
+		/* Split the groups holding marked and unmarked states. */
+		for (i = 0; i < ntouched; ++i)
+		  {
+		    int g = touched[i];
+		    int split = start[g] + marked[g];
+		    marked[g] = 0;
+		    if (split == end[g])
+		      {
+			continue;
+		      }
+		    int h = nblocks++;
+		    start[h] = start[g];
+		    end[h] = split;
+		    start[g] = split;
+		    for (k = start[h]; k < end[h]; ++k)
+		      {
+			block[elems[k]] = h;
+		      }
+		    if (waiting[g] || end[h] - start[h] <= end[g] - start[g])
+		      {
+			worklist[nworklist++] = h;
+			waiting[h] = true;
+		      }
+		    else
+		      {
+			worklist[nworklist++] = g;
+			waiting[g] = true;
+		      }
+		  }
+	      }
+	  }
+
+	/* Number the groups in the order of their first state. */
+	int number[] = new int[nblocks];
+	java.util.Arrays.fill(number, -1);
+	k = 0;
+	for (s = 0; s < size; ++s)
+	  {
+	    if (-1 == number[block[s]])
+	      {
+		number[block[s]] = k++;
+	      }
+	    m_ingroup[s] = number[block[s]];
+	  }
+	return k;
       }
 
   /***************************************************************
     Function: init_groups
-    Description:
+    Description: Groups the states by accepting action, the
+    groups in the order of their first state.
     **************************************************************/
   private void init_groups
     (
      )
       {
 	int i;
-	int j;
-	int group_count;
 	int size;
-	CAccept accept;
 	CDTrans dtrans;
 	Vector dtrans_group;
-	CDTrans first;
-	boolean group_found;
+	Integer group;
+	Hashtable groups;
+	int null_group;
 
 	m_group = new Vector();
-	group_count = 0;
+	groups = new Hashtable();
+	null_group = -1;
 	
 	size = m_spec.m_dtrans_vector.size();
 	m_ingroup = new int[size];
 	
 	for (i = 0; i < size; ++i)
 	  {
-	    group_found = false;
 	    dtrans = (CDTrans) m_spec.m_dtrans_vector.elementAt(i);
 
 	    if (CUtility.DEBUG)
 	      {
 		CUtility.ASSERT(i == dtrans.m_label);
-		CUtility.ASSERT(false == group_found);
-		CUtility.ASSERT(group_count == m_group.size());
 	      }
-	    
-	    for (j = 0; j < group_count; ++j)
-	      {
-		dtrans_group = (Vector) m_group.elementAt(j);
-		
-		if (CUtility.DEBUG)
-		  {
-		    CUtility.ASSERT(false == group_found);
-		    CUtility.ASSERT(0 < dtrans_group.size());
-		  }
-
-		first = (CDTrans) dtrans_group.elementAt(0);
-		
-		if (CUtility.SLOW_DEBUG)
-		  {
-		    CDTrans check;
-		    int k;
-		    int s;
-
-		    s = dtrans_group.size();
-		    CUtility.ASSERT(0 < s);
 
-		    for (k = 1; k < s; ++k)
-		      {
-			check = (CDTrans) dtrans_group.elementAt(k);
-			CUtility.ASSERT(check.m_accept == first.m_accept);
-		      }
-		  }
-
-		if (first.m_accept == dtrans.m_accept)
+	    if (null == dtrans.m_accept)
+	      {
+		if (-1 == null_group)
 		  {
-		    dtrans_group.addElement(dtrans);
-		    m_ingroup[i] = j;
-		    group_found = true;
-		    
-		    if (CUtility.DEBUG)
-		      {
-			CUtility.ASSERT(j == m_ingroup[dtrans.m_label]);
-		      }
-
-		    break;
+		    null_group = m_group.size();
+		    m_group.addElement(new Vector());
 		  }
+		m_ingroup[i] = null_group;
 	      }
-	    
-	    if (false == group_found)
+	    else
 	      {
-		dtrans_group = new Vector();
-		dtrans_group.addElement(dtrans);
-		m_ingroup[i] = m_group.size();
-		m_group.addElement(dtrans_group);
-		++group_count;
+		group = (Integer) groups.get(dtrans.m_accept);
+		if (null == group)
+		  {
+		    group = new Integer(m_group.size());
+		    groups.put(dtrans.m_accept, group);
+		    m_group.addElement(new Vector());
+		  }
+		m_ingroup[i] = group.intValue();
 	      }
+
+	    dtrans_group = (Vector) m_group.elementAt(m_ingroup[i]);
+	    dtrans_group.addElement(dtrans);
 	  }
 	
 	if (m_spec.m_verbose
@@ -3118,10 +3819,26 @@ class CNfa2Dfa
   private int m_unmarked_dfa;
   private CLexGen m_lexGen;
 
+  /* The NFA, indexed by CNfa label (labels are the indices
+     of the states in m_spec.m_nfa_states). */
+  private int m_nfa_edge[]; /* Edge of each state. */
+  private int m_nfa_next[]; /* Label of m_next, or NO_STATE. */
+  private int m_nfa_next2[]; /* Label of m_next2, or NO_STATE. */
+  private CAccept m_nfa_accept[]; /* Accepting action of each state. */
+  private int m_nfa_anchor[]; /* Anchor of each state. */
+  private boolean m_nfa_ccl[][]; /* Columns in the class of CCL states. */
+  private int m_closure[][]; /* Sorted epsilon closure of each state,
+				computed on first use. */
+
+  /* Scratch space for computing closures. */
+  private int m_visit[]; /* States already in the closure being built. */
+  private int m_visit_now;
+  private int m_stack[];
+
   /***************************************************************
     Constants
     **************************************************************/
-  private static final int NOT_IN_DSTATES = -1;
+  private static final int NO_STATE = -1;
 
   /***************************************************************
     Function: CNfa2Dfa
@@ -3159,6 +3876,17 @@ class CNfa2Dfa
 	m_lexGen = null;
 	m_spec = null;
 	m_unmarked_dfa = 0;
+
+	m_nfa_edge = null;
+	m_nfa_next = null;
+	m_nfa_next2 = null;
+	m_nfa_accept = null;
+	m_nfa_anchor = null;
+	m_nfa_ccl = null;
+	m_closure = null;
+	m_visit = null;
+	m_visit_now = 0;
+	m_stack = null;
       }
 
   /***************************************************************
@@ -3176,7 +3904,15 @@ class CNfa2Dfa
 	reset();
 	set(lexGen,spec);
 
-	make_dtrans();
+	index_nfa();
+	if (m_spec.m_parallel)
+	  {
+	    make_dtrans_parallel();
+	  }
+	else
+	  {
+	    make_dtrans();
+	  }
 	free_nfa_states();
 
 	if (m_spec.m_verbose && true == CUtility.OLD_DUMP_DEBUG)
@@ -3186,7 +3922,61 @@ class CNfa2Dfa
 	  }
 
 	free_dfa_states();
-      }     
+	reset();
+      }
+
+  /***************************************************************
+    Function: index_nfa
+    Description: Copies the NFA into arrays indexed by CNfa
+    label, so that subset construction works on ints rather
+    than on CNfa objects.
+    **************************************************************/
+  private void index_nfa
+    (
+     )
+      {
+	int size;
+	int i;
+	int col;
+	CNfa nfa;
+
+	size = m_spec.m_nfa_states.size();
+	m_nfa_edge = new int[size];
+	m_nfa_next = new int[size];
+	m_nfa_next2 = new int[size];
+	m_nfa_accept = new CAccept[size];
+	m_nfa_anchor = new int[size];
+	m_nfa_ccl = new boolean[size][];
+	m_closure = new int[size][];
+	m_visit = new int[size];
+	m_visit_now = 0;
+	m_stack = new int[size];
+
+	for (i = 0; i < size; ++i)
+	  {
+	    nfa = (CNfa) m_spec.m_nfa_states.elementAt(i);
+
+	    if (CUtility.DEBUG)
+	      {
+		CUtility.ASSERT(i == nfa.m_label);
+	      }
+
+	    m_nfa_edge[i] = nfa.m_edge;
+	    m_nfa_next[i] = (null == nfa.m_next) ? NO_STATE : nfa.m_next.m_label;
+	    m_nfa_next2[i] = (null == nfa.m_next2) ? NO_STATE : nfa.m_next2.m_label;
+	    m_nfa_accept[i] = nfa.m_accept;
+	    m_nfa_anchor[i] = nfa.m_anchor;
+
+	    if (CNfa.CCL == nfa.m_edge)
+	      {
+		m_nfa_ccl[i] = new boolean[m_spec.m_dtrans_ncols];
+		for (col = 0; col < m_spec.m_dtrans_ncols; ++col)
+		  {
+		    m_nfa_ccl[i][col] = nfa.m_set.contains(col);
+		  }
+	      }
+	  }
+      }
 
    /***************************************************************
     Function: make_dtrans
@@ -3197,7 +3987,6 @@ class CNfa2Dfa
      )
      /* throws java.lang.CloneNotSupportedException*/
       {
-	CDfa next;
 	CDfa dfa;
 	CBunch bunch;
 	int i;
@@ -3207,7 +3996,7 @@ class CNfa2Dfa
 	CNfa nfa;
 	int istate;
 	int nstates;
-	
+
 	System.out.print("Working on DFA states.");
 
 	/* Reference passing type and initializations. */
@@ -3230,28 +4019,18 @@ class CNfa2Dfa
 		continue;
 	      }
 	    */
-		
-	    /* Create start state and initialize fields. */
-	    bunch.m_nfa_set = (Vector) m_spec.m_state_rules[istate].clone();
-	    sortStates(bunch.m_nfa_set);
-	    
-	    bunch.m_nfa_bit = new SparseBitSet();
-	    
-	    /* Initialize bit set. */
-	    size = bunch.m_nfa_set.size();
+
+	    /* Create start state from the closure of the rules. */
+	    start_set(bunch);
+	    size = m_spec.m_state_rules[istate].size();
 	    for (i = 0; size > i; ++i)
 	      {
-		nfa = (CNfa) bunch.m_nfa_set.elementAt(i);
-		bunch.m_nfa_bit.set(nfa.m_label);
+		nfa = (CNfa) m_spec.m_state_rules[istate].elementAt(i);
+		add_closure(nfa.m_label,bunch);
 	      }
-	    
-	    bunch.m_accept = null;
-	    bunch.m_anchor = CSpec.NONE;
-	    bunch.m_accept_index = CUtility.INT_MAX;
-	    
-	    e_closure(bunch);
+	    end_set(bunch);
 	    add_to_dstates(bunch);
-	    
+
 	    m_spec.m_state_dtrans[istate] = m_spec.m_dtrans_vector.size();
 
 	    /* Main loop of CDTrans creation. */
@@ -3259,7 +4038,7 @@ class CNfa2Dfa
 	      {
 		System.out.print(".");
 		System.out.flush();
-		
+
 		if (CUtility.DEBUG)
 		  {
 		    CUtility.ASSERT(false == dfa.m_mark);
@@ -3267,64 +4046,46 @@ class CNfa2Dfa
 
 		/* Get first unmarked node, then mark it. */
 		dfa.m_mark = true;
-		
+
 		/* Allocate new CDTrans, then initialize fields. */
 		dtrans = new CDTrans(m_spec.m_dtrans_vector.size(),m_spec);
 		dtrans.m_accept = dfa.m_accept;
 		dtrans.m_anchor = dfa.m_anchor;
-		
+
 		/* Set CDTrans array for each character transition. */
 		for (i = 0; i < m_spec.m_dtrans_ncols; ++i)
 		  {
-		    if (CUtility.DEBUG)
-		      {
-			CUtility.ASSERT(0 <= i);
-			CUtility.ASSERT(m_spec.m_dtrans_ncols > i);
-		      }
-		    
 		    /* Create new dfa set by attempting character transition. */
-		    move(dfa.m_nfa_set,dfa.m_nfa_bit,i,bunch);
-		    if (null != bunch.m_nfa_set)
-		      {
-			e_closure(bunch);
-		      }
-		    
-		    if (CUtility.DEBUG)
-		      {
-			CUtility.ASSERT((null == bunch.m_nfa_set 
-					 && null == bunch.m_nfa_bit)
-					|| (null != bunch.m_nfa_set 
-					    && null != bunch.m_nfa_bit));
-		      }
-		    
+		    move(dfa.m_nfa_set,i,bunch);
+
 		    /* Create new state or set state to empty. */
-		    if (null == bunch.m_nfa_set)
+		    if (0 == bunch.m_nfa_size)
 		      {
 			nextstate = CDTrans.F;
 		      }
-		    else 
+		    else
 		      {
 			nextstate = in_dstates(bunch);
-			
-			if (NOT_IN_DSTATES == nextstate)
+
+			if (NO_STATE == nextstate)
 			  {
 			    nextstate = add_to_dstates(bunch);
 			  }
 		      }
-		    
+
 		    if (CUtility.DEBUG)
 		      {
 			CUtility.ASSERT(nextstate < m_spec.m_dfa_states.size());
 		      }
-		    
+
 		    dtrans.m_dtrans[i] = nextstate;
 		  }
-		
+
 		if (CUtility.DEBUG)
 		  {
 		    CUtility.ASSERT(m_spec.m_dtrans_vector.size() == dfa.m_label);
 		  }
-		
+
 		m_spec.m_dtrans_vector.addElement(dtrans);
 	      }
 	  }
@@ -3332,9 +4093,275 @@ class CNfa2Dfa
 	System.out.println();
       }
 
+  /***************************************************************
+    Function: make_dtrans_parallel
+    Description: Creates the same CDTrans transition table as
+    make_dtrans(), building the sets of NFA states of the
+    lexical states on several threads (%parallel).
+    Each thread works from the start set of a lexical state,
+    and finds the sets reached on each column; the sets of all
+    threads go in one concurrent map, so that each set is
+    worked on by the one thread which first put it there.
+    The DFA states are then numbered in the order in which
+    make_dtrans() would find them.
+    **************************************************************/
+  private void make_dtrans_parallel
+    (
+     )
+      {
+	final java.util.concurrent.ConcurrentHashMap subsets;
+	java.util.concurrent.ExecutorService pool;
+	java.util.concurrent.Future futures[];
+	CBunch starts[];
+	Throwable cause;
+	int istate;
+	int nstates;
+	int i;
+
+	System.out.print("Working on DFA states.");
+
+	/* The threads share the closures, so compute them first. */
+	for (i = 0; i < m_nfa_edge.length; ++i)
+	  {
+	    closure(i);
+	  }
+
+	nstates = m_spec.m_state_rules.length;
+	subsets = new java.util.concurrent.ConcurrentHashMap();
+	pool = java.util.concurrent.Executors.newFixedThreadPool(
+		Math.min(nstates, Runtime.getRuntime().availableProcessors()));
+	futures = new java.util.concurrent.Future[nstates];
+	for (istate = 0; istate < nstates; ++istate)
+	  {
+	    final int state = istate;
+
+	    futures[istate] = pool.submit(new java.util.concurrent.Callable() {
+		public Object call()
+		  {
+		    return make_subsets(state,subsets);
+		  }
+	      });
+	  }
+
+	starts = new CBunch[nstates];
+	try
+	  {
+	    for (istate = 0; istate < nstates; ++istate)
+	      {
+		starts[istate] = (CBunch) futures[istate].get();
+	      }
+	  }
+	catch (InterruptedException e)
+	  {
+	    throw new Error("Interrupted while making the DFA.");
+	  }
+	catch (java.util.concurrent.ExecutionException e)
+	  {
+	    cause = e.getCause();
+	    if (cause instanceof Error)
+	      {
+		throw (Error) cause;
+	      }
+	    throw new Error(cause.toString());
+	  }
+	finally
+	  {
+	    pool.shutdown();
+	  }
+
+	number_subsets(starts);
+
+	System.out.println();
+      }
+
+  /***************************************************************
+    Function: make_subsets
+    Description: Puts in subsets the start set of lexical
+    state istate, and all the sets reached from it which no
+    other thread put there first, with the sets they reach
+    on each column.  Returns the start set, as found in
+    subsets.
+    **************************************************************/
+  private CBunch make_subsets
+    (
+     int istate,
+     java.util.concurrent.ConcurrentHashMap subsets
+     )
+      {
+	Vector work;
+	CBunch bunch;
+	CBunch start;
+	CBunch subset;
+	CNfa nfa;
+	int size;
+	int i;
+
+	work = new Vector();
+	bunch = new CBunch();
+
+	start_set(bunch);
+	size = m_spec.m_state_rules[istate].size();
+	for (i = 0; size > i; ++i)
+	  {
+	    nfa = (CNfa) m_spec.m_state_rules[istate].elementAt(i);
+	    add_closure(nfa.m_label,bunch);
+	  }
+	end_set(bunch);
+	start = put_subset(bunch,subsets,work);
+
+	while (0 < work.size())
+	  {
+	    subset = (CBunch) work.remove(work.size() - 1);
+
+	    subset.m_next = new CBunch[m_spec.m_dtrans_ncols];
+	    for (i = 0; i < m_spec.m_dtrans_ncols; ++i)
+	      {
+		move(subset.m_nfa_set,i,bunch);
+		if (0 != bunch.m_nfa_size)
+		  {
+		    subset.m_next[i] = put_subset(bunch,subsets,work);
+		  }
+	      }
+	  }
+
+	return start;
+      }
+
+  /***************************************************************
+    Function: put_subset
+    Description: Returns the set of subsets equal to the set
+    built in bunch, putting a copy of it in subsets (and in
+    work, to find the sets it reaches) if there is none.
+    **************************************************************/
+  private CBunch put_subset
+    (
+     CBunch bunch,
+     java.util.concurrent.ConcurrentHashMap subsets,
+     Vector work
+     )
+      {
+	CBunch subset;
+	CBunch other;
+
+	subset = (CBunch) subsets.get(bunch);
+	if (null != subset)
+	  {
+	    return subset;
+	  }
+
+	subset = new CBunch(java.util.Arrays.copyOf(bunch.m_nfa_set,
+						    bunch.m_nfa_size));
+	subset.m_accept = bunch.m_accept;
+	subset.m_anchor = bunch.m_anchor;
+	subset.m_accept_index = bunch.m_accept_index;
+
+	other = (CBunch) subsets.putIfAbsent(subset,subset);
+	if (null != other)
+	  {
+	    return other;
+	  }
+
+	work.addElement(subset);
+	return subset;
+      }
+
+  /***************************************************************
+    Function: number_subsets
+    Description: Creates the DFA states and the CDTrans table
+    of the sets made by make_subsets(), in the order of
+    make_dtrans(): for each lexical state, a new state for
+    its start set, then the states of the sets it reaches,
+    breadth first.
+    **************************************************************/
+  private void number_subsets
+    (
+     CBunch starts[]
+     )
+      {
+	Vector subsets;
+	CBunch subset;
+	CBunch next;
+	CDTrans dtrans;
+	CDfa dfa;
+	int istate;
+	int i;
+
+	subsets = new Vector();
+	m_unmarked_dfa = 0;
+	m_spec.m_state_dtrans = new int[starts.length];
+
+	for (istate = 0; istate < starts.length; ++istate)
+	  {
+	    add_subset(starts[istate],subsets);
+
+	    m_spec.m_state_dtrans[istate] = m_spec.m_dtrans_vector.size();
+
+	    while (null != (dfa = get_unmarked()))
+	      {
+		System.out.print(".");
+		System.out.flush();
+
+		dfa.m_mark = true;
+		subset = (CBunch) subsets.elementAt(dfa.m_label);
+
+		dtrans = new CDTrans(m_spec.m_dtrans_vector.size(),m_spec);
+		dtrans.m_accept = dfa.m_accept;
+		dtrans.m_anchor = dfa.m_anchor;
+
+		for (i = 0; i < m_spec.m_dtrans_ncols; ++i)
+		  {
+		    next = subset.m_next[i];
+		    if (null == next)
+		      {
+			dtrans.m_dtrans[i] = CDTrans.F;
+		      }
+		    else
+		      {
+			if (NO_STATE == next.m_dfa)
+			  {
+			    add_subset(next,subsets);
+			  }
+			dtrans.m_dtrans[i] = next.m_dfa;
+		      }
+		  }
+
+		if (CUtility.DEBUG)
+		  {
+		    CUtility.ASSERT(m_spec.m_dtrans_vector.size() == dfa.m_label);
+		  }
+
+		m_spec.m_dtrans_vector.addElement(dtrans);
+	      }
+	  }
+      }
+
+  /***************************************************************
+    Function: add_subset
+    Description: Creates the DFA state of set subset, as
+    add_to_dstates() does; subset then stands for it, until
+    another DFA state is created for the same set.
+    **************************************************************/
+  private void add_subset
+    (
+     CBunch subset,
+     Vector subsets
+     )
+      {
+	CDfa dfa;
+
+	dfa = CAlloc.newCDfa(m_spec);
+	dfa.m_nfa_set = subset.m_nfa_set;
+	dfa.m_accept = subset.m_accept;
+	dfa.m_anchor = subset.m_anchor;
+	dfa.m_mark = false;
+
+	subset.m_dfa = dfa.m_label;
+	subsets.addElement(subset);
+      }
+
   /***************************************************************
     Function: free_dfa_states
-    **************************************************************/  
+    **************************************************************/
   private void free_dfa_states
     (
      )
@@ -3345,7 +4372,7 @@ class CNfa2Dfa
 
   /***************************************************************
     Function: free_nfa_states
-    **************************************************************/  
+    **************************************************************/
   private void free_nfa_states
     (
      )
@@ -3359,247 +4386,207 @@ class CNfa2Dfa
       }
 
   /***************************************************************
-    Function: e_closure
-    Description: Alters and returns input set.
+    Function: closure
+    Description: Returns the sorted labels of the epsilon
+    closure of NFA state 'state'.  The closure of each state
+    is computed once, on first use.
     **************************************************************/
-  private void e_closure
+  private int[] closure
     (
-     CBunch bunch
+     int state
      )
       {
-	Stack nfa_stack;
+	int result[];
 	int size;
-	int i;
-	CNfa state;
+	int top;
+	int elem;
+	int next;
 
-	/* Debug checks. */
-	if (CUtility.DEBUG)
+	if (null != m_closure[state])
 	  {
-	    CUtility.ASSERT(null != bunch);
-	    CUtility.ASSERT(null != bunch.m_nfa_set);
-	    CUtility.ASSERT(null != bunch.m_nfa_bit);
+	    return m_closure[state];
 	  }
 
-	bunch.m_accept = null;
-	bunch.m_anchor = CSpec.NONE;
-	bunch.m_accept_index = CUtility.INT_MAX;
-	
-	/* Create initial stack. */
-	nfa_stack = new Stack();
-	size = bunch.m_nfa_set.size();
-	for (i = 0; i < size; ++i)
+	/* Depth-first walk along epsilon edges. */
+	++m_visit_now;
+	result = new int[8];
+	size = 0;
+	top = 0;
+	m_visit[state] = m_visit_now;
+	m_stack[top++] = state;
+	while (0 < top)
 	  {
-	    state = (CNfa) bunch.m_nfa_set.elementAt(i);
-	    
-	    if (CUtility.DEBUG)
-	      {
-		CUtility.ASSERT(bunch.m_nfa_bit.get(state.m_label));
-	      }
-
-	    nfa_stack.push(state);
-	  }
+	    elem = m_stack[--top];
 
-	/* Main loop. */
-	while (false == nfa_stack.empty())
-	  {
-	    state = (CNfa) nfa_stack.pop();
-	    
-	    if (CUtility.OLD_DUMP_DEBUG)
+	    if (size == result.length)
 	      {
-		if (null != state.m_accept)
-		  {
-		    System.out.println("Looking at accepting state " + state.m_label
-				       + " with <"
-				       + (new String(state.m_accept.m_action,0,
-						     state.m_accept.m_action_read))
-				       + ">");
-		  }
+		result = java.util.Arrays.copyOf(result, 2 * size);
 	      }
+	    result[size++] = elem;
 
-	    if (null != state.m_accept 
-		&& state.m_label < bunch.m_accept_index)
+	    if (CNfa.EPSILON == m_nfa_edge[elem])
 	      {
-		bunch.m_accept_index = state.m_label;
-		bunch.m_accept = state.m_accept;
-		bunch.m_anchor = state.m_anchor;
-
-		if (CUtility.OLD_DUMP_DEBUG)
+		next = m_nfa_next[elem];
+		if (NO_STATE != next && m_visit_now != m_visit[next])
 		  {
-		    System.out.println("Found accepting state " + state.m_label
-				       + " with <"
-				       + (new String(state.m_accept.m_action,0,
-						     state.m_accept.m_action_read))
-				       + ">");
+		    m_visit[next] = m_visit_now;
+		    m_stack[top++] = next;
 		  }
 
-		if (CUtility.DEBUG)
+		next = m_nfa_next2[elem];
+		if (NO_STATE != next && m_visit_now != m_visit[next])
 		  {
-		    CUtility.ASSERT(null != bunch.m_accept);
-		    CUtility.ASSERT(CSpec.NONE == bunch.m_anchor
-				    || 0 != (bunch.m_anchor & CSpec.END)
-				    || 0 != (bunch.m_anchor & CSpec.START));
-		  }
-	      }
-
-	    if (CNfa.EPSILON == state.m_edge)
-	      {
-		if (null != state.m_next)
-		  {
-		    if (false == bunch.m_nfa_set.contains(state.m_next))
-		      {
-			if (CUtility.DEBUG)
-			  {
-			    CUtility.ASSERT(false == bunch.m_nfa_bit.get(state.m_next.m_label));
-			  }
-			
-			bunch.m_nfa_bit.set(state.m_next.m_label);
-			bunch.m_nfa_set.addElement(state.m_next);
-			nfa_stack.push(state.m_next);
-		      }
-		  }
-
-		if (null != state.m_next2)
-		  {
-		    if (false == bunch.m_nfa_set.contains(state.m_next2))
-		      {
-			if (CUtility.DEBUG)
-			  {
-			    CUtility.ASSERT(false == bunch.m_nfa_bit.get(state.m_next2.m_label));
-			  }
-			
-			bunch.m_nfa_bit.set(state.m_next2.m_label);
-			bunch.m_nfa_set.addElement(state.m_next2);
-			nfa_stack.push(state.m_next2);
-		      }
+		    m_visit[next] = m_visit_now;
+		    m_stack[top++] = next;
 		  }
 	      }
 	  }
 
-	if (null != bunch.m_nfa_set)
+	result = java.util.Arrays.copyOf(result, size);
+	java.util.Arrays.sort(result);
+	m_closure[state] = result;
+	return result;
+      }
+
+  /***************************************************************
+    Function: start_set
+    Description: Empties bunch, to build a new set of NFA
+    states in it with add_closure() and end_set().
+    **************************************************************/
+  private void start_set
+    (
+     CBunch bunch
+     )
+      {
+	if (null == bunch.m_stamp)
 	  {
-	    sortStates(bunch.m_nfa_set);
+	    bunch.m_stamp = new int[m_nfa_edge.length];
 	  }
 
-	return;
+	bunch.m_nfa_size = 0;
+	++bunch.m_stamp_now;
       }
 
   /***************************************************************
-    Function: move
-    Description: Returns null if resulting NFA set is empty.
+    Function: add_closure
+    Description: Adds the epsilon closure of NFA state
+    'state' to the set being built in bunch.
     **************************************************************/
-  void move
+  private void add_closure
     (
-     Vector nfa_set,
-     SparseBitSet nfa_bit,
-     int b,
+     int state,
      CBunch bunch
      )
       {
-	int size;
-	int index;
-	CNfa state;
-	
-	bunch.m_nfa_set = null;
-	bunch.m_nfa_bit = null;
+	int members[];
+	int stamp;
+	int i;
 
-	size = nfa_set.size();
-	for (index = 0; index < size; ++index)
+	members = closure(state);
+	stamp = bunch.m_stamp_now;
+	if (stamp == bunch.m_stamp[state])
 	  {
-	    state = (CNfa) nfa_set.elementAt(index);
-	    
-	    if (b == state.m_edge
-		|| (CNfa.CCL == state.m_edge
-		    && true == state.m_set.contains(b)))
+	    /* Closure already in the set. */
+	    return;
+	  }
+
+	for (i = 0; i < members.length; ++i)
+	  {
+	    state = members[i];
+	    if (stamp != bunch.m_stamp[state])
 	      {
-		if (null == bunch.m_nfa_set)
+		bunch.m_stamp[state] = stamp;
+		if (bunch.m_nfa_size == bunch.m_nfa_set.length)
 		  {
-		    if (CUtility.DEBUG)
-		      {
-			CUtility.ASSERT(null == bunch.m_nfa_bit);
-		      }
-		    
-		    bunch.m_nfa_set = new Vector();
-		    /*bunch.m_nfa_bit 
-			= new SparseBitSet(m_spec.m_nfa_states.size());*/
-		    bunch.m_nfa_bit = new SparseBitSet();
+		    bunch.m_nfa_set = java.util.Arrays.copyOf(bunch.m_nfa_set,
+							      2 * bunch.m_nfa_size);
 		  }
-
-		bunch.m_nfa_set.addElement(state.m_next);
-		/*System.out.println("Size of bitset: " + bunch.m_nfa_bit.size());
-		System.out.println("Reference index: " + state.m_next.m_label);
-		System.out.flush();*/
-		bunch.m_nfa_bit.set(state.m_next.m_label);
+		bunch.m_nfa_set[bunch.m_nfa_size++] = state;
 	      }
 	  }
-	
-	if (null != bunch.m_nfa_set)
+      }
+
+  /***************************************************************
+    Function: end_set
+    Description: Sorts the set built in bunch, and finds
+    its accepting action: that of its state with the lowest
+    label.
+    **************************************************************/
+  private void end_set
+    (
+     CBunch bunch
+     )
+      {
+	int i;
+	int state;
+
+	java.util.Arrays.sort(bunch.m_nfa_set, 0, bunch.m_nfa_size);
+	bunch.rehash();
+
+	bunch.m_accept = null;
+	bunch.m_anchor = CSpec.NONE;
+	bunch.m_accept_index = CUtility.INT_MAX;
+	for (i = 0; i < bunch.m_nfa_size; ++i)
 	  {
-	    if (CUtility.DEBUG)
+	    state = bunch.m_nfa_set[i];
+	    if (null != m_nfa_accept[state])
 	      {
-		CUtility.ASSERT(null != bunch.m_nfa_bit);
+		bunch.m_accept_index = state;
+		bunch.m_accept = m_nfa_accept[state];
+		bunch.m_anchor = m_nfa_anchor[state];
+
+		if (CUtility.DEBUG)
+		  {
+		    CUtility.ASSERT(CSpec.NONE == bunch.m_anchor
+				    || 0 != (bunch.m_anchor & CSpec.END)
+				    || 0 != (bunch.m_anchor & CSpec.START));
+		  }
+		break;
 	      }
-	    
-	    sortStates(bunch.m_nfa_set);
 	  }
-
-	return;
       }
 
   /***************************************************************
-    Function: sortStates
+    Function: move
+    Description: Builds in bunch the epsilon closure of the
+    NFA states reached from nfa_set on column b.  The set is
+    empty (bunch.m_nfa_size is 0) if there is no transition.
     **************************************************************/
-  private void sortStates
+  private void move
     (
-     Vector nfa_set
+     int nfa_set[],
+     int b,
+     CBunch bunch
      )
       {
-	CNfa elem;
-	int begin;
-	int size;
 	int index;
-	int value;
-	int smallest_index;
-	int smallest_value;
-	CNfa begin_elem;
+	int state;
+	int edge;
+
+	start_set(bunch);
 
-	size = nfa_set.size();
-	for (begin = 0; begin < size; ++begin)
+	for (index = 0; index < nfa_set.length; ++index)
 	  {
-	    elem = (CNfa) nfa_set.elementAt(begin);
-	    smallest_value = elem.m_label;
-	    smallest_index = begin;
+	    state = nfa_set[index];
+	    edge = m_nfa_edge[state];
 
-	    for (index = begin + 1; index < size; ++index)
+	    if (b == edge
+		|| (CNfa.CCL == edge
+		    && m_nfa_ccl[state][b]))
 	      {
-		elem = (CNfa) nfa_set.elementAt(index);
-		value = elem.m_label;
-
-		if (value < smallest_value)
+		if (CUtility.DEBUG)
 		  {
-		    smallest_index = index;
-		    smallest_value = value;
+		    CUtility.ASSERT(NO_STATE != m_nfa_next[state]);
 		  }
-	      }
 
-	    begin_elem = (CNfa) nfa_set.elementAt(begin);
-	    elem = (CNfa) nfa_set.elementAt(smallest_index);
-	    nfa_set.setElementAt(elem,begin);
-	    nfa_set.setElementAt(begin_elem,smallest_index);
+		add_closure(m_nfa_next[state],bunch);
+	      }
 	  }
 
-	if (CUtility.OLD_DEBUG)
+	if (0 != bunch.m_nfa_size)
 	  {
-	    System.out.print("NFA vector indices: ");  
-	    
-	    for (index = 0; index < size; ++index)
-	      {
-		elem = (CNfa) nfa_set.elementAt(index);
-		System.out.print(elem.m_label + " ");
-	      }
-	    System.out.println();
-	  }	
-
-	return;
+	    end_set(bunch);
+	  }
       }
 
   /***************************************************************
@@ -3629,7 +4616,7 @@ class CNfa2Dfa
 		if (m_spec.m_verbose && true == CUtility.OLD_DUMP_DEBUG)
 		  {
 		    System.out.println("---------------");
-		    System.out.print("working on DFA state " 
+		    System.out.print("working on DFA state "
 				     + m_unmarked_dfa
 				     + " = NFA states: ");
 		    m_lexGen.print_set(dfa.m_nfa_set);
@@ -3644,12 +4631,12 @@ class CNfa2Dfa
 
 	return null;
       }
-  
+
   /***************************************************************
     function: add_to_dstates
     Description: Takes as input a CBunch with details of
     a dfa state that needs to be created.
-    1) Allocates a new dfa state and saves it in 
+    1) Allocates a new dfa state and saves it in
     the appropriate CSpec vector.
     2) Initializes the fields of the dfa state
     with the information in the CBunch.
@@ -3661,28 +4648,27 @@ class CNfa2Dfa
      )
       {
 	CDfa dfa;
-	
+	CBunch key;
+
 	if (CUtility.DEBUG)
 	  {
-	    CUtility.ASSERT(null != bunch.m_nfa_set);
-	    CUtility.ASSERT(null != bunch.m_nfa_bit);
-	    CUtility.ASSERT(null != bunch.m_accept 
+	    CUtility.ASSERT(null != bunch.m_accept
 			    || CSpec.NONE == bunch.m_anchor);
 	  }
 
 	/* Allocate, passing CSpec so dfa label can be set. */
 	dfa = CAlloc.newCDfa(m_spec);
-	
+
 	/* Initialize fields, including the mark field. */
-	dfa.m_nfa_set = (Vector) bunch.m_nfa_set.clone();
-	dfa.m_nfa_bit = (SparseBitSet) bunch.m_nfa_bit.clone();
+	dfa.m_nfa_set = java.util.Arrays.copyOf(bunch.m_nfa_set, bunch.m_nfa_size);
 	dfa.m_accept = bunch.m_accept;
 	dfa.m_anchor = bunch.m_anchor;
 	dfa.m_mark = false;
-	
-	/* Register dfa state using BitSet in CSpec Hashtable. */
-	m_spec.m_dfa_sets.put(dfa.m_nfa_bit,dfa);
-	/*registerCDfa(dfa);*/
+
+	/* Register dfa state using its set of NFA states
+	   in CSpec Hashtable. */
+	key = new CBunch(dfa.m_nfa_set);
+	m_spec.m_dfa_sets.put(key,dfa);
 
 	if (CUtility.OLD_DUMP_DEBUG)
 	  {
@@ -3703,14 +4689,15 @@ class CNfa2Dfa
      )
       {
 	CDfa dfa;
-	
+
 	if (CUtility.OLD_DEBUG)
 	  {
 	    System.out.print("Looking for set : ");
-	    m_lexGen.print_set(bunch.m_nfa_set);
+	    m_lexGen.print_set(java.util.Arrays.copyOf(bunch.m_nfa_set,
+						       bunch.m_nfa_size));
 	  }
 
-	dfa = (CDfa) m_spec.m_dfa_sets.get(bunch.m_nfa_bit);
+	dfa = (CDfa) m_spec.m_dfa_sets.get(bunch);
 
 	if (null != dfa)
 	  {
@@ -3718,7 +4705,7 @@ class CNfa2Dfa
 	      {
 		System.out.println(" FOUND!");
 	      }
-	    
+
 	    return dfa.m_label;
 	  }
 
@@ -3726,7 +4713,7 @@ class CNfa2Dfa
 	  {
 	    System.out.println(" NOT FOUND!");
 	  }
-	return NOT_IN_DSTATES;
+	return NO_STATE;
       }
 
 }
@@ -3900,8 +4887,7 @@ class CDfa
   boolean m_mark;
   CAccept m_accept;
   int m_anchor;
-  Vector m_nfa_set;
-  SparseBitSet m_nfa_bit;
+  int m_nfa_set[]; /* Sorted labels of its CNfa states. */
   int m_label;
 
   /***************************************************************
@@ -3919,7 +4905,6 @@ class CDfa
 	m_anchor = CSpec.NONE;
 
 	m_nfa_set = null;
-	m_nfa_bit = null;
 
 	m_label = label;
       }
@@ -4879,6 +5864,36 @@ class CLexGen
 	    return;
 	  }
 
+	init();
+      }
+
+  /***************************************************************
+    Function: CLexGen
+    Description: Constructor for a specification read from
+    instream, whose lexical analyzer is written to outstream.
+    **************************************************************/
+  CLexGen
+    (
+     java.io.Reader instream,
+     java.io.PrintWriter outstream
+     )
+      {
+	m_init_flag = false;
+	m_instream = instream;
+	m_outstream = outstream;
+
+	init();
+      }
+
+  /***************************************************************
+    Function: init
+    Description: Initialization common to the constructors,
+    once the streams are open.
+    **************************************************************/
+  private void init
+    (
+     )
+      {
 	/* Create input buffer class. */
 	m_input = new CInput(m_instream);
 
@@ -4985,6 +6000,41 @@ class CLexGen
 	m_outstream.close();
       }
 
+  /***************************************************************
+    Function: make_nfa
+    Description: Processes the specification up to the NFA
+    machine representation of its rules, which is neither
+    simplified nor made into a DFA, and returns its CSpec.
+    Used by BitSetBenchmark.
+    **************************************************************/
+  CSpec make_nfa
+    (
+     )
+      throws java.io.IOException
+      {
+	if (false == m_init_flag)
+	  {
+	    CError.parse_error(CError.E_INIT,0);
+	  }
+
+	userCode();
+	if (m_input.m_eof_reached)
+	  {
+	    CError.parse_error(CError.E_EOF,m_input.m_line_number);
+	  }
+
+	userDeclare();
+	if (m_input.m_eof_reached)
+	  {
+	    CError.parse_error(CError.E_EOF,m_input.m_line_number);
+	  }
+
+	m_makeNfa.allocate_BOL_EOF(m_spec);
+	m_makeNfa.thompson(this,m_spec,m_input);
+
+	return m_spec;
+      }
+
   /***************************************************************
     Function: userCode
     Description: Process first section of specification,
@@ -5409,6 +6459,32 @@ class CLexGen
     'b', 'l', 'i', 
     'c', '\0'
     };
+
+  private char m_compress_dir[] = { 
+    '%', 'c', 'o',
+    'm', 'p', 'r',
+    'e', 's', 's',
+    '\0'
+    };
+
+  private char m_minimal_dir[] = { 
+    '%', 'm', 'i',
+    'n', 'i', 'm',
+    'a', 'l', '\0'
+    };
+
+  private char m_parallel_dir[] = { 
+    '%', 'p', 'a',
+    'r', 'a', 'l',
+    'l', 'e', 'l',
+    '\0'
+    };
+
+  private char m_switch_dir[] = { 
+    '%', 's', 'w',
+    'i', 't', 'c',
+    'h', '\0'
+    };
   
   /***************************************************************
     Function: userDeclare
@@ -5537,6 +6613,17 @@ class CLexGen
 			      "java_cup.runtime.Symbol".toCharArray();
 			  break;
 			}
+		      else if (0 == CUtility.charncmp(m_input.m_line,
+						      0,
+						      m_compress_dir,
+						      0,
+						      m_compress_dir.length - 1))
+			{
+			  /* Emit comb-vector compressed tables. */
+			  m_input.m_line_index = m_compress_dir.length;
+			  m_spec.m_compress = true;
+			  break;
+			}
 	      
 		      /* Bad directive. */
 		      CError.parse_error(CError.E_DIRECT,
@@ -5711,6 +6798,24 @@ class CLexGen
 					 m_input.m_line_number);
 		      break;
 
+		    case 'm':
+		      if (0 == CUtility.charncmp(m_input.m_line,
+						 0,
+						 m_minimal_dir,
+						 0,
+						 m_minimal_dir.length - 1))
+			{
+			  /* Minimize by Hopcroft's algorithm. */
+			  m_input.m_line_index = m_minimal_dir.length;
+			  m_spec.m_minimal = true;
+			  break;
+			}
+
+		      /* Bad directive. */
+		      CError.parse_error(CError.E_DIRECT,
+					 m_input.m_line_number);
+		      break;
+
 		    case 'n':
 		      if (0 == CUtility.charncmp(m_input.m_line,
 						 0,
@@ -5741,6 +6846,17 @@ class CLexGen
 			  m_spec.m_public = true;
 			  break;
 			}
+		      else if (0 == CUtility.charncmp(m_input.m_line,
+						      0,
+						      m_parallel_dir,
+						      0,
+						      m_parallel_dir.length - 1))
+			{
+			  /* Make the DFA on several threads. */
+			  m_input.m_line_index = m_parallel_dir.length;
+			  m_spec.m_parallel = true;
+			  break;
+			}
 
 		      /* Bad directive. */
 		      CError.parse_error(CError.E_DIRECT,
@@ -5759,6 +6875,17 @@ class CLexGen
 			  saveStates();
 			  break;
 			}
+		      else if (0 == CUtility.charncmp(m_input.m_line,
+						      0,
+						      m_switch_dir,
+						      0,
+						      m_switch_dir.length - 1))
+			{
+			  /* Emit direct-coded transitions. */
+			  m_input.m_line_index = m_switch_dir.length;
+			  m_spec.m_switch = true;
+			  break;
+			}
 
 		      /* Undefined directive. */
 		      CError.parse_error(CError.E_DIRECT,
@@ -7276,14 +8403,13 @@ class CLexGen
     **************************************************************/
   void print_set
     (
-     Vector nfa_set
+     int nfa_set[]
      )
       {
 	int size; 
 	int elem;
-	CNfa nfa;
 
-	size = nfa_set.size();
+	size = nfa_set.length;
 
 	if (0 == size)
 	  {
@@ -7292,9 +8418,7 @@ class CLexGen
 	
 	for (elem = 0; elem < size; ++elem)
 	  {
-	    nfa = (CNfa) nfa_set.elementAt(elem);
-	    /*System.out.print(m_spec.m_nfa_states.indexOf(nfa) + " ");*/
-	    System.out.print(nfa.m_label + " ");
+	    System.out.print(nfa_set[elem] + " ");
 	  }
       }
 
@@ -7447,32 +8571,57 @@ class CLexGen
 
 /**
  * A set of bits. The set automatically grows as more bits are
- * needed. 
+ * needed.
+ *
+ * A set starts out dense: block i of <code>bits</code> holds bits
+ * i*BITS to i*BITS+BITS-1, so that get() and set() index the block
+ * directly and the binary operations run word by word.  Only when a
+ * set would span more than SPARSE_RATIO times as many blocks as it
+ * uses (as do the unicode character classes) does it switch to the
+ * sparse form, a sorted array of the offsets of its non-empty blocks.
  *
  * @version 	1.00, 25 Jul 1999
  * @author C. Scott Ananian
  */
 final class SparseBitSet implements Cloneable {
-    /** Sorted array of bit-block offsets. */
+    /** Sorted array of bit-block offsets, or null while the set is
+     *  dense. */
     int  offs[];
     /** Array of bit-blocks; each holding BITS bits. */
     long bits[];
-    /** Number of blocks currently in use. */
+    /** Number of blocks currently in use (all of bits[] while the set
+     *  is dense). */
     int size;
+    /** Whether the set may be dense; if not, it is always sparse. */
+    private boolean adaptive;
     /** log base 2 of BITS, for the identity: x/BITS == x >> LG_BITS */
     static final private int LG_BITS = 6;
     /** Number of bits in a block. */
     static final private int BITS = 1<<LG_BITS;
     /** BITS-1, using the identity: x % BITS == x & (BITS-1) */
     static final private int BITS_M1 = BITS-1;
+    /** Number of blocks a dense set may always span (8-bit characters). */
+    static final private int DENSE_MIN = 4;
+    /** A dense set goes sparse rather than span more than SPARSE_RATIO
+     *  blocks per non-empty block. */
+    static final private int SPARSE_RATIO = 4;
 
     /**
      * Creates an empty set.
      */
     public SparseBitSet() {
+	this(true);
+    }
+
+    /**
+     * Creates an empty set, which is always sparse if
+     * <code>adaptive</code> is false.
+     */
+    public SparseBitSet(boolean adaptive) {
+	this.adaptive = adaptive;
 	bits = new long[4];
-	offs = new int [4];
-	size = 0;
+	offs = adaptive ? null : new int [4];
+	size = adaptive ? bits.length : 0;
     }
 
     /**
@@ -7487,9 +8636,10 @@ final class SparseBitSet implements Cloneable {
      * Creates an empty set with the same size as the given set.
      */
     public SparseBitSet(SparseBitSet set) {
-	bits = new long[set.size];
-	offs = new int [set.size];
-	size = 0;
+	adaptive = set.adaptive;
+	bits = new long[Math.max(4, set.size)];
+	offs = (set.offs==null) ? null : new int [bits.length];
+	size = (set.offs==null) ? bits.length : 0;
     }
 
     private void new_block(int bnum) {
@@ -7527,13 +8677,70 @@ final class SparseBitSet implements Cloneable {
 	CUtility.ASSERT(l==r);
 	return l; // index at which the bnum *should* be, if it's not.
     }
-	    
+    /** Offset of the idx'th block in use. */
+    private int off(int idx) {
+	return (offs==null) ? idx : offs[idx];
+    }
+    /** Number of blocks up to the last non-empty one. */
+    private int span() {
+	int n = size;
+	while (n>0 && bits[n-1]==0) n--;
+	return (n==0) ? 0 : off(n-1)+1;
+    }
+
+    /**
+     * Makes a dense set span block bnum, unless it would then be
+     * sparse enough to be better off in the sparse form; it is then
+     * switched to the sparse form.
+     * @return true if the set is still dense
+     */
+    private boolean grow_dense(int bnum) {
+	if (bnum >= DENSE_MIN) {
+	    int used = 0;
+	    for (int i=0; i<size; i++)
+		if (bits[i]!=0) used++;
+	    if (bnum >= SPARSE_RATIO*(used+1)) {
+		to_sparse();
+		return false;
+	    }
+	}
+	long[] nbits = new long[Math.max(bnum+1, 2*bits.length)];
+	System.arraycopy(bits, 0, nbits, 0, size);
+	bits = nbits;
+	size = bits.length;
+	return true;
+    }
+    /**
+     * Switches a dense set to the sparse form.
+     */
+    private void to_sparse() {
+	int n = 0;
+	for (int i=0; i<size; i++)
+	    if (bits[i]!=0) n++;
+	long[] nbits = new long[Math.max(4, 2*n)];
+	int [] noffs = new int [nbits.length];
+	n = 0;
+	for (int i=0; i<size; i++)
+	    if (bits[i]!=0) {
+		nbits[n] = bits[i];
+		noffs[n] = i;
+		n++;
+	    }
+	bits = nbits;
+	offs = noffs;
+	size = n;
+    }
+
     /**
      * Sets a bit.
      * @param bit the bit to be set
      */
     public void set(int bit) {
 	int bnum = bit >> LG_BITS;
+	if (offs==null && (bnum<size || grow_dense(bnum))) {
+	    bits[bnum] |= (1L << (bit & BITS_M1) );
+	    return;
+	}
 	int idx  = bsearch(bnum);
 	if (idx >= size || offs[idx]!=bnum)
 	    new_block(idx, bnum);
@@ -7546,6 +8753,11 @@ final class SparseBitSet implements Cloneable {
      */
     public void clear(int bit) {
 	int bnum = bit >> LG_BITS;
+	if (offs==null) {
+	    if (bnum<size)
+		bits[bnum] &= ~(1L << (bit & BITS_M1) );
+	    return;
+	}
 	int idx  = bsearch(bnum);
 	if (idx >= size || offs[idx]!=bnum)
 	    new_block(idx, bnum);
@@ -7556,7 +8768,15 @@ final class SparseBitSet implements Cloneable {
      * Clears all bits.
      */
     public void clearAll() {
-	size = 0;
+	if (!adaptive) {
+	    size = 0;
+	} else if (offs==null) {
+	    java.util.Arrays.fill(bits, 0, size, 0);
+	} else { // a fresh start, dense again.
+	    bits = new long[4];
+	    offs = null;
+	    size = bits.length;
+	}
     }
 
     /**
@@ -7565,6 +8785,8 @@ final class SparseBitSet implements Cloneable {
      */
     public boolean get(int bit) {
 	int bnum = bit >> LG_BITS;
+	if (offs==null)
+	    return bnum < size && 0 != ( bits[bnum] & (1L << (bit & BITS_M1) ) );
 	int idx  = bsearch(bnum);
 	if (idx >= size || offs[idx]!=bnum)
 	    return false;
@@ -7576,6 +8798,13 @@ final class SparseBitSet implements Cloneable {
      * @param set the bit set to be ANDed with
      */
     public void and(SparseBitSet set) {
+	if (offs==null) { // stays dense
+	    for (int i=0, j=0; i<size; i++) {
+		while (j<set.size && set.off(j)<i) j++;
+		bits[i] &= (j<set.size && set.off(j)==i) ? set.bits[j] : 0;
+	    }
+	    return;
+	}
 	binop(this, set, AND);
     }
 
@@ -7584,6 +8813,12 @@ final class SparseBitSet implements Cloneable {
      * @param set the bit set to be ORed with
      */
     public void or(SparseBitSet set) {
+	int n = set.span();
+	if (offs==null && (n<=size || grow_dense(n-1))) {
+	    for (int i=0; i<set.size && set.off(i)<n; i++)
+		bits[set.off(i)] |= set.bits[i];
+	    return;
+	}
 	binop(this, set, OR);
     }
 
@@ -7592,25 +8827,30 @@ final class SparseBitSet implements Cloneable {
      * @param set the bit set to be XORed with
      */
     public void xor(SparseBitSet set) {
+	int n = set.span();
+	if (offs==null && (n<=size || grow_dense(n-1))) {
+	    for (int i=0; i<set.size && set.off(i)<n; i++)
+		bits[set.off(i)] ^= set.bits[i];
+	    return;
+	}
 	binop(this, set, XOR);
     }
 
-    // BINARY OPERATION MACHINERY
-    private static interface BinOp {
-	public long op(long a, long b);
+    // BINARY OPERATION MACHINERY (sparse form)
+    private static final int AND = 0;
+    private static final int OR = 1;
+    private static final int XOR = 2;
+    private static final long op(int op, long a, long b) {
+	switch (op) {
+	case AND: return a & b;
+	case OR:  return a | b;
+	default:  return a ^ b;
+	}
     }
-    private static final BinOp AND = new BinOp() {
-	public final long op(long a, long b) { return a & b; }
-    };
-    private static final BinOp OR = new BinOp() {
-	public final long op(long a, long b) { return a | b; }
-    };
-    private static final BinOp XOR = new BinOp() {
-	public final long op(long a, long b) { return a ^ b; }
-    };
-    private static final void binop(SparseBitSet a, SparseBitSet b, BinOp op) {
+    private static final void binop(SparseBitSet a, SparseBitSet b, int op) {
+	if (a.offs==null) a.to_sparse(); // b is read through b.off()
 	int  nsize = a.size + b.size;
-	long[] nbits; 
+	long[] nbits;
 	int [] noffs;
 	int a_zero, a_size;
 	// be very clever and avoid allocating more memory if we can.
@@ -7629,16 +8869,16 @@ final class SparseBitSet implements Cloneable {
 	nsize = 0;
 	for (int i=a_zero, j=0; i<a_size || j<b.size; ) {
 	    long nb; int no;
-	    if (i<a_size && (j>=b.size || a.offs[i] < b.offs[j])) {
-		nb = op.op(a.bits[i], 0);
+	    if (i<a_size && (j>=b.size || a.offs[i] < b.off(j))) {
+		nb = op(op, a.bits[i], 0);
 		no = a.offs[i];
 		i++;
-	    } else if (j<b.size && (i>=a_size || a.offs[i] > b.offs[j])) {
-		nb = op.op(0, b.bits[j]);
-		no = b.offs[j];
+	    } else if (j<b.size && (i>=a_size || a.offs[i] > b.off(j))) {
+		nb = op(op, 0, b.bits[j]);
+		no = b.off(j);
 		j++;
 	    } else { // equal keys; merge.
-		nb = op.op(a.bits[i], b.bits[j]);
+		nb = op(op, a.bits[i], b.bits[j]);
 		no = a.offs[i];
 		i++; j++;
 	    }
@@ -7659,7 +8899,7 @@ final class SparseBitSet implements Cloneable {
     public int hashCode() {
 	long h = 1234;
 	for (int i=0; i<size; i++)
-	    h ^= bits[i] * offs[i];
+	    h ^= bits[i] * off(i);
 	return (int)((h >> 32) ^ h);
     }
 
@@ -7667,6 +8907,8 @@ final class SparseBitSet implements Cloneable {
      * Calculates and returns the set's size
      */
     public int size() {
+	if (offs==null)
+	    return span() << LG_BITS;
 	return (size==0)?0:((1+offs[size-1]) << LG_BITS);
     }
 
@@ -7677,7 +8919,7 @@ final class SparseBitSet implements Cloneable {
      */
     public boolean equals(Object obj) {
 	if ((obj != null) && (obj instanceof SparseBitSet))
-	    return equals(this, (SparseBitSet)obj); 
+	    return equals(this, (SparseBitSet)obj);
 	return false;
     }
     /**
@@ -7686,9 +8928,9 @@ final class SparseBitSet implements Cloneable {
      */
     public static boolean equals(SparseBitSet a, SparseBitSet b) {
 	for (int i=0, j=0; i<a.size || j<b.size; ) {
-	    if (i<a.size && (j>=b.size || a.offs[i] < b.offs[j])) {
+	    if (i<a.size && (j>=b.size || a.off(i) < b.off(j))) {
 		if (a.bits[i++]!=0) return false;
-	    } else if (j<b.size && (i>=a.size || a.offs[i] > b.offs[j])) {
+	    } else if (j<b.size && (i>=a.size || a.off(i) > b.off(j))) {
 		if (b.bits[j++]!=0) return false;
 	    } else { // equal keys
 		if (a.bits[i++]!=b.bits[j++]) return false;
@@ -7701,10 +8943,11 @@ final class SparseBitSet implements Cloneable {
      * Clones the SparseBitSet.
      */
     public Object clone() {
-	try { 
+	try {
 	    SparseBitSet set = (SparseBitSet)super.clone();
 	    set.bits = (long[]) bits.clone();
-	    set.offs = (int []) offs.clone();
+	    if (offs!=null)
+		set.offs = (int []) offs.clone();
 	    return set;
 	} catch (CloneNotSupportedException e) {
 	    // this shouldn't happen, since we are Cloneable
@@ -7724,7 +8967,7 @@ final class SparseBitSet implements Cloneable {
 		return (idx<size);
 	    }
 	    public Object nextElement() {
-		int r = bit + (offs[idx] << LG_BITS);
+		int r = bit + (off(idx) << LG_BITS);
 		advance();
 		return new Integer(r);
 	    }
@@ -7754,6 +8997,7 @@ final class SparseBitSet implements Cloneable {
 
     /** Check validity. */
     private boolean isValid() {
+	if (offs==null) return size==bits.length;
 	if (bits.length!=offs.length) return false;
 	if (size>bits.length) return false;
 	if (size!=0 && 0<=offs[0]) return false;
@@ -7764,9 +9008,34 @@ final class SparseBitSet implements Cloneable {
     }
     /** Self-test. */
     public static void main(String[] args) {
+	test(false);
+	test(true);
+	// dense sets which switch to sparse ones, against sparse sets.
+	SparseBitSet a = new SparseBitSet(), b = new SparseBitSet(false);
+	for (int i=0; i<200; i++) { a.set(i); b.set(i); }
+	CUtility.ASSERT(a.offs==null && a.equals(b) && b.equals(a));
+	CUtility.ASSERT(a.hashCode()==b.hashCode() && a.size()==b.size());
+	a.set(700); b.set(700);
+	CUtility.ASSERT(a.offs==null && a.equals(b));
+	a.set(0x2028); b.set(0x2028);
+	CUtility.ASSERT(a.offs!=null && a.equals(b) && b.equals(a));
+	CUtility.ASSERT(a.hashCode()==b.hashCode() && a.size()==b.size());
+	SparseBitSet c = new SparseBitSet(), d = new SparseBitSet(false);
+	for (int i=100; i<300; i+=3) { c.set(i); d.set(i); }
+	a.and(c); b.and(d);
+	CUtility.ASSERT(a.equals(b) && a.toString().equals(b.toString()));
+	c.or(a); d.or(b);
+	CUtility.ASSERT(c.offs==null && c.equals(d));
+	c.xor(a); d.xor(b);
+	CUtility.ASSERT(c.equals(d) && c.hashCode()==d.hashCode());
+	c.clearAll();
+	CUtility.ASSERT(c.offs==null && c.size()==0);
+	System.out.println("Success.");
+    }
+    private static void test(boolean adaptive) {
 	final int ITER = 500;
 	final int RANGE= 65536;
-	SparseBitSet a = new SparseBitSet();
+	SparseBitSet a = new SparseBitSet(adaptive);
 	CUtility.ASSERT(!a.get(0) && !a.get(1));
 	CUtility.ASSERT(!a.get(123329));
 	a.set(0); CUtility.ASSERT(a.get(0) && !a.get(1));
@@ -7810,7 +9079,240 @@ final class SparseBitSet implements Cloneable {
 	c = (SparseBitSet) d.clone();
 	c.and(b);
 	CUtility.ASSERT(c.size()==0);
-	System.out.println("Success.");
+    }
+}
+
+/**
+ * Measures the set operations of JLex on the sets of real
+ * specifications, with SparseBitSets which may be dense (as they are
+ * by default) and with SparseBitSets which are always sparse:
+ *   classes   the splitting of the character classes of
+ *             CSimplifyNfa.computeClasses() (set, get, and, size)
+ *   contains  the test of each character against the class of each
+ *             CCL edge (get)
+ *   binops    and, or and xor of each pair of classes of CCL edges
+ *   closures  the epsilon closure of each NFA state as a set of
+ *             labels, then hashed and compared (set, get, hashCode,
+ *             equals)
+ *
+ * Each workload is run for WARMUP iterations, then measured over
+ * ITERATIONS iterations; an iteration runs the workload again and
+ * again until MIN_TIME has passed.  The report gives the mean time of a run of
+ * the workload for both kinds of sets.
+ *
+ * Usage: java JLex.BitSetBenchmark [-iterations n] spec.jlex ...
+ */
+final class BitSetBenchmark {
+    static final private int WARMUP = 3;
+    static final private int ITERATIONS = 5;
+    static final private long MIN_TIME = 200000000L;
+    static final private String WORKLOADS[] =
+	{ "classes", "contains", "binops", "closures" };
+    static final private int DENSE = 0, SPARSE = 1;
+
+    /** Number of characters of the specification. */
+    private int ncols;
+    /** Edges of the CNfas with a character or CCL edge. */
+    private int edge[];
+    /** Class of each of these edges (or null), as a dense and as a
+     *  sparse set. */
+    private SparseBitSet ccl[][];
+    /** Epsilon edges of each CNfa (-1 if none). */
+    private int next[], next2[];
+
+    /** Reads the NFA of specification 'file'. */
+    BitSetBenchmark(String file) throws java.io.IOException {
+	CLexGen lexGen = new CLexGen(new java.io.FileReader(file),
+	    new java.io.PrintWriter(new java.io.StringWriter()));
+	CSpec spec = lexGen.make_nfa();
+	int size = spec.m_nfa_states.size();
+	ncols = spec.m_dtrans_ncols;
+	next = new int[size];
+	next2 = new int[size];
+	Vector edges = new Vector();
+	for (int i=0; i<size; i++) {
+	    CNfa nfa = (CNfa) spec.m_nfa_states.elementAt(i);
+	    next[i] = next2[i] = -1;
+	    if (nfa.m_edge==CNfa.EPSILON) {
+		if (nfa.m_next!=null) next[i] = nfa.m_next.m_label;
+		if (nfa.m_next2!=null) next2[i] = nfa.m_next2.m_label;
+	    } else if (nfa.m_edge!=CNfa.EMPTY)
+		edges.addElement(nfa);
+	}
+	edge = new int[edges.size()];
+	ccl = new SparseBitSet[2][edges.size()];
+	for (int k=0; k<edge.length; k++) {
+	    CNfa nfa = (CNfa) edges.elementAt(k);
+	    edge[k] = nfa.m_edge;
+	    if (nfa.m_edge!=CNfa.CCL) continue;
+	    ccl[DENSE][k] = new SparseBitSet(true);
+	    ccl[SPARSE][k] = new SparseBitSet(false);
+	    for (int i=0; i<ncols; i++)
+		if (nfa.m_set.contains(i)) {
+		    ccl[DENSE][k].set(i);
+		    ccl[SPARSE][k].set(i);
+		}
+	}
+    }
+
+    public static void main(String[] args) throws java.io.IOException {
+	int iterations = ITERATIONS;
+	Vector files = new Vector();
+	for (int i=0; i<args.length; i++)
+	    if (args[i].equals("-iterations") && i+1<args.length)
+		iterations = Integer.parseInt(args[++i]);
+	    else
+		files.addElement(args[i]);
+
+	String report = "";
+	for (int f=0; f<files.size(); f++) {
+	    String file = (String) files.elementAt(f);
+	    BitSetBenchmark bench = new BitSetBenchmark(file);
+	    int nccls = 0, ndense = 0;
+	    for (int k=0; k<bench.edge.length; k++)
+		if (bench.ccl[DENSE][k]!=null) {
+		    nccls++;
+		    if (bench.ccl[DENSE][k].offs==null) ndense++;
+		}
+	    report += file + ": " + bench.next.length + " NFA states, "
+		+ bench.ncols + " characters, " + ndense + " of " + nccls
+		+ " classes dense\n";
+	    report += pad("workload", 12) + pad("dense us", 14)
+		+ pad("sparse us", 14) + pad("speedup", 10) + "\n";
+	    for (int w=0; w<WORKLOADS.length; w++) {
+		double dense = bench.measure(w, DENSE, iterations);
+		double sparse = bench.measure(w, SPARSE, iterations);
+		report += pad(WORKLOADS[w], 12)
+		    + pad(format(dense / 1e3), 14)
+		    + pad(format(sparse / 1e3), 14)
+		    + pad(format(sparse / dense), 10) + "\n";
+	    }
+	    report += "\n";
+	}
+	System.out.println();
+	System.out.print(report);
+    }
+
+    /**
+     * Returns the mean time in ns of a run of workload w on the sets
+     * of kind mode.
+     */
+    private double measure(int w, int mode, int iterations) {
+	long sink = 0;
+	long time = 0, runs = 0;
+	for (int i=0; i<WARMUP+iterations; i++) {
+	    long start = System.nanoTime(), now;
+	    long n = 0;
+	    do {
+		sink += run(w, mode);
+		n++;
+		now = System.nanoTime();
+	    } while (now - start < MIN_TIME);
+	    if (i >= WARMUP) {
+		time += now - start;
+		runs += n;
+	    }
+	}
+	if (sink == 42) System.out.print(""); // keep the results alive
+	return (double) time / runs;
+    }
+
+    private long run(int w, int mode) {
+	switch (w) {
+	case 0: return classes(mode);
+	case 1: return contains(mode);
+	case 2: return binops(mode);
+	default: return closures(mode);
+	}
+    }
+
+    private boolean on_edge(int mode, int k, int i) {
+	return edge[k]==i || (edge[k]==CNfa.CCL && ccl[mode][k].get(i));
+    }
+
+    /** The loop of CSimplifyNfa.computeClasses(). */
+    private long classes(int mode) {
+	int ccls[] = new int[ncols];
+	int split[] = new int[ncols+1];
+	int nextcls = 1;
+	SparseBitSet clsA = new SparseBitSet(DENSE==mode);
+	SparseBitSet clsB = new SparseBitSet(DENSE==mode);
+	for (int k=0; k<edge.length; k++) {
+	    clsA.clearAll(); clsB.clearAll();
+	    for (int i=0; i<ncols; i++)
+		if (on_edge(mode, k, i))
+		    clsA.set(ccls[i]);
+		else
+		    clsB.set(ccls[i]);
+	    clsA.and(clsB);
+	    if (clsA.size()==0) continue;
+	    java.util.Arrays.fill(split, 0, nextcls, -1);
+	    for (int i=0; i<ncols; i++)
+		if (clsA.get(ccls[i]) && on_edge(mode, k, i)) {
+		    if (split[ccls[i]] < 0)
+			split[ccls[i]] = nextcls++;
+		    ccls[i] = split[ccls[i]];
+		}
+	}
+	return nextcls;
+    }
+
+    private long contains(int mode) {
+	long count = 0;
+	for (int k=0; k<edge.length; k++)
+	    if (ccl[mode][k]!=null)
+		for (int i=0; i<ncols; i++)
+		    if (ccl[mode][k].get(i)) count++;
+	return count;
+    }
+
+    private long binops(int mode) {
+	long count = 0;
+	for (int k=0; k<edge.length; k++) {
+	    if (ccl[mode][k]==null) continue;
+	    for (int l=0; l<edge.length; l++) {
+		if (ccl[mode][l]==null) continue;
+		SparseBitSet set = (SparseBitSet) ccl[mode][k].clone();
+		set.and(ccl[mode][l]);
+		set.or(ccl[mode][l]);
+		set.xor(ccl[mode][k]);
+		count += set.size();
+	    }
+	}
+	return count;
+    }
+
+    private long closures(int mode) {
+	long count = 0;
+	int stack[] = new int[next.length];
+	for (int s=0; s<next.length; s++) {
+	    SparseBitSet set = new SparseBitSet(DENSE==mode);
+	    int top = 0;
+	    set.set(s);
+	    stack[top++] = s;
+	    while (top > 0) {
+		int state = stack[--top];
+		if (next[state]>=0 && !set.get(next[state])) {
+		    set.set(next[state]);
+		    stack[top++] = next[state];
+		}
+		if (next2[state]>=0 && !set.get(next2[state])) {
+		    set.set(next2[state]);
+		    stack[top++] = next2[state];
+		}
+	    }
+	    count += set.hashCode();
+	    if (set.equals(set.clone())) count++;
+	}
+	return count;
+    }
+
+    private static String format(double d) {
+	return String.valueOf(Math.round(d * 100) / 100.0);
+    }
+    private static String pad(String s, int n) {
+	while (s.length() < n) s = " " + s;
+	return s;
     }
 }
 
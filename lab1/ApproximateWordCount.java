@@ -0,0 +1,354 @@
+
+import java.util.*;
+
+/**
+ * A class for the ApproximateWordCount data structure.
+ * An ApproximateWordCount estimates how often each word occurs
+ * without keeping the words themselves: the counts live in a
+ * count-min sketch of fixed size, and only the 'k' words with the
+ * highest estimates (the heavy hitters) are kept as Strings.
+ * The heavy hitters are found by the 64-bit hash of their word (two
+ * words of the same hash share their counters in the sketch anyway)
+ * and kept in a min-heap on their estimate, where each one knows its
+ * own index: raising the estimate of a heavy hitter moves it down the
+ * heap in O(log k), and builds nothing.
+ *
+ * With probability at least 1 - delta, the estimate of a word
+ * exceeds its true frequency by at most epsilon * (number of words
+ * added), and never falls below it. The sketch has e / epsilon
+ * counters per row (at most MAX_WIDTH, so epsilon is at least about
+ * 4.05e-8) and ln(1 / delta) rows (at most MAX_COUNTERS counters in all)
+ */
+public class ApproximateWordCount implements WordSink {
+
+    // the largest sketch: counters per row, and counters in all
+    static final int MAX_WIDTH = 1 << 26;
+    static final int MAX_COUNTERS = 1 << 30;
+
+    private int k;
+    private double epsilon;
+    private double delta;
+    private int depth;
+    private int mask;
+    private long[] sketch;
+    private long total;
+
+    // the heavy hitters by the hash of their word (open addressing,
+    // null for an empty slot), and in a min-heap on their estimate
+    private HeavyHitter[] hitters;
+    private HeavyHitter[] heap;
+    private int size;
+
+    /**
+     * Builds an empty ApproximateWordCount which keeps the 'k'
+     * most frequent words, with the error bounds 'epsilon' and 'delta'
+     */
+    public ApproximateWordCount(int k, double epsilon, double delta) {
+        if (k < 1 || epsilon <= 0 || epsilon >= 1 || delta <= 0 || delta >= 1) {
+            throw new IllegalArgumentException("bad parameters: k=" + k + " epsilon=" + epsilon + " delta=" + delta);
+        }
+        // the counters per row (e / epsilon, rounded up to a power of 2)
+        // and the rows (ln(1 / delta)), computed in long so that they
+        // can be checked before they overflow an int
+        long needed = (long) Math.ceil(Math.E / epsilon);
+        long rows = (long) Math.ceil(Math.log(1 / delta));
+        if (needed > MAX_WIDTH || rows * Long.highestOneBit(2 * needed - 1) > MAX_COUNTERS) {
+            throw new IllegalArgumentException("bad parameters: k=" + k + " epsilon=" + epsilon + " delta=" + delta
+                    + " (the sketch would need more than " + MAX_WIDTH + " counters per row or "
+                    + MAX_COUNTERS + " counters)");
+        }
+        this.k = k;
+        this.epsilon = epsilon;
+        this.delta = delta;
+        int width = Integer.highestOneBit((int) needed - 1) << 1;
+        this.depth = (int) rows;
+        this.mask = width - 1;
+        this.sketch = new long[this.depth * width];
+        this.total = 0;
+        this.hitters = new HeavyHitter[Integer.highestOneBit(2 * k) << 1];
+        this.heap = new HeavyHitter[k];
+        this.size = 0;
+    }
+
+    /**
+     * Adds an occurrence of the given word 'word'
+     */
+    public void add(String word) {
+        long hash = hash(word);
+        if (this.offer(hash) && !this.raise(hash)) {
+            this.admit(word, hash);
+        }
+    }
+
+    /**
+     * Adds an occurrence of the lower-case form of the word
+     * text[start .. start + length - 1]. The line number and the
+     * character position are not kept. A String is only built when
+     * the word becomes one of the heavy hitters
+     */
+    public void add(char[] text, int start, int length, int lineNum, int charPos) {
+        if (!WordTable.ASCII_FOLDS) {
+            this.add(new String(text, start, length).toLowerCase());
+            return;
+        }
+        int h1 = 0;
+        int h2 = 0x811C9DC5;
+        for (int i = start; i < start + length; i++) {
+            char c = text[i];
+            if (c >= 0x80) {
+                this.add(new String(text, start, length).toLowerCase());
+                return;
+            }
+            c = WordTable.toLower(c);
+            h1 = 31 * h1 + c;
+            h2 = (h2 ^ c) * 0x01000193;
+        }
+        long hash = ((long) h1 << 32) | (h2 & 0xFFFFFFFFL);
+        if (this.offer(hash) && !this.raise(hash)) {
+            this.admit(new String(text, start, length).toLowerCase(), hash);
+        }
+    }
+
+    /**
+     * Returns the estimated number of occurrences
+     * of the given word 'word'
+     */
+    public long estimate(String word) {
+        return this.estimate(hash(word));
+    }
+
+    /**
+     * Returns the (at most) 'k' words with the highest estimates,
+     * from the most frequent to the least frequent
+     */
+    public List<String> topWords() {
+        List<HeavyHitter> sorted = new ArrayList<HeavyHitter>(Arrays.asList(this.heap).subList(0, this.size));
+        Collections.sort(sorted, Collections.reverseOrder());
+        List<String> top = new ArrayList<String>(sorted.size());
+        for (HeavyHitter hitter : sorted) {
+            top.add(hitter.word);
+        }
+        return top;
+    }
+
+    /**
+     * Returns the number of words added so far
+     */
+    public long getTotal() {
+        return this.total;
+    }
+
+    /**
+     * Returns the largest overestimate of a frequency
+     * (holding with probability 1 - delta)
+     */
+    public long getErrorBound() {
+        return (long) Math.ceil(this.epsilon * this.total);
+    }
+
+    /**
+     * Returns the probability that an estimate
+     * exceeds the error bound
+     */
+    public double getDelta() {
+        return this.delta;
+    }
+
+    /**
+     * Counts an occurrence of the word with the given hash
+     * in the sketch and returns true if its new estimate makes it a
+     * heavy hitter (or a heavy hitter with a higher estimate).
+     * The counters are updated conservatively: only the smallest ones
+     * are raised, which keeps the estimates tighter
+     */
+    private boolean offer(long hash) {
+        this.total++;
+        long count = this.estimate(hash) + 1;
+        for (int row = 0; row < this.depth; row++) {
+            int cell = this.cell(hash, row);
+            if (this.sketch[cell] < count) {
+                this.sketch[cell] = count;
+            }
+        }
+        return this.size < this.k || count > this.heap[0].count;
+    }
+
+    private long estimate(long hash) {
+        long count = Long.MAX_VALUE;
+        for (int row = 0; row < this.depth; row++) {
+            count = Math.min(count, this.sketch[this.cell(hash, row)]);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the index of the counter of the given row for the word
+     * with the given hash. The hash carries two independent 32-bit
+     * hashes h1 and h2; row i uses h1 + i * h2
+     */
+    private int cell(long hash, int row) {
+        int h1 = (int) (hash >>> 32);
+        int h2 = (int) hash;
+        return row * (this.mask + 1) + (mix(h1 + row * h2) & this.mask);
+    }
+
+    /**
+     * Returns the two hashes of 'word' packed in a long
+     * (the same ones add(char[], ...) computes on the fly)
+     */
+    private static long hash(String word) {
+        int h1 = 0;
+        int h2 = 0x811C9DC5;
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            h1 = 31 * h1 + c;
+            h2 = (h2 ^ c) * 0x01000193;
+        }
+        return ((long) h1 << 32) | (h2 & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Raises the estimate of the heavy hitter of the given hash to the
+     * estimate of the sketch and returns true, or returns false if
+     * the word of the hash is not a heavy hitter
+     */
+    private boolean raise(long hash) {
+        HeavyHitter hitter = this.find(hash);
+        if (hitter == null) {
+            return false;
+        }
+        hitter.count = this.estimate(hash);
+        this.siftDown(hitter.index);
+        return true;
+    }
+
+    /**
+     * Makes 'word', of the given hash, a heavy hitter with the
+     * estimate of the sketch, dropping the heavy hitter with the
+     * lowest estimate if there are already 'k' of them
+     */
+    private void admit(String word, long hash) {
+        HeavyHitter hitter = new HeavyHitter(word, hash);
+        hitter.count = this.estimate(hash);
+        if (this.size == this.k) {
+            this.unlink(this.heap[0]);
+            hitter.index = 0;
+            this.heap[0] = hitter;
+            this.siftDown(0);
+        } else {
+            hitter.index = this.size;
+            this.heap[this.size++] = hitter;
+            this.siftUp(hitter.index);
+        }
+        this.link(hitter);
+    }
+
+    /**
+     * Returns the heavy hitter of the given hash, or null
+     */
+    private HeavyHitter find(long hash) {
+        int mask = this.hitters.length - 1;
+        for (int slot = slot(hash, mask); this.hitters[slot] != null; slot = (slot + 1) & mask) {
+            if (this.hitters[slot].hash == hash) {
+                return this.hitters[slot];
+            }
+        }
+        return null;
+    }
+
+    private void link(HeavyHitter hitter) {
+        int mask = this.hitters.length - 1;
+        int slot = slot(hitter.hash, mask);
+        while (this.hitters[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+        this.hitters[slot] = hitter;
+    }
+
+    /**
+     * Removes 'hitter' from the table of the heavy hitters, moving back
+     * the hitters after it which would no longer be found
+     */
+    private void unlink(HeavyHitter hitter) {
+        int mask = this.hitters.length - 1;
+        int hole = slot(hitter.hash, mask);
+        while (this.hitters[hole] != hitter) {
+            hole = (hole + 1) & mask;
+        }
+        this.hitters[hole] = null;
+        for (int slot = (hole + 1) & mask; this.hitters[slot] != null; slot = (slot + 1) & mask) {
+            int home = slot(this.hitters[slot].hash, mask);
+            // moves the hitter unless its home is after the hole (cyclically)
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                this.hitters[hole] = this.hitters[slot];
+                this.hitters[slot] = null;
+                hole = slot;
+            }
+        }
+    }
+
+    private static int slot(long hash, int mask) {
+        return mix((int) (hash >>> 32) ^ (int) hash) & mask;
+    }
+
+    private void siftUp(int i) {
+        HeavyHitter hitter = this.heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (this.heap[parent].compareTo(hitter) <= 0) {
+                break;
+            }
+            this.place(this.heap[parent], i);
+            i = parent;
+        }
+        this.place(hitter, i);
+    }
+
+    private void siftDown(int i) {
+        HeavyHitter hitter = this.heap[i];
+        while (2 * i + 1 < this.size) {
+            int child = 2 * i + 1;
+            if (child + 1 < this.size && this.heap[child + 1].compareTo(this.heap[child]) < 0) {
+                child++;
+            }
+            if (hitter.compareTo(this.heap[child]) <= 0) {
+                break;
+            }
+            this.place(this.heap[child], i);
+            i = child;
+        }
+        this.place(hitter, i);
+    }
+
+    private void place(HeavyHitter hitter, int i) {
+        this.heap[i] = hitter;
+        hitter.index = i;
+    }
+
+    private static int mix(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * A word with the highest estimate of its frequency seen so far.
+     * Ordered by increasing estimate (words of the same estimate
+     * in reverse alphabetical order)
+     */
+    private static class HeavyHitter implements Comparable<HeavyHitter> {
+        private String word;
+        private long hash;
+        private long count;
+        private int index;      // in the heap
+
+        HeavyHitter(String word, long hash) {
+            this.word = word;
+            this.hash = hash;
+        }
+
+        public int compareTo(HeavyHitter other) {
+            int cmp = Long.compare(this.count, other.count);
+            return cmp != 0 ? cmp : other.word.compareTo(this.word);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+
+import java.io.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.nio.file.attribute.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Builds the WordCount of several files at once.
+ * Every file gets an id (its rank in the list of files) and is
+ * scanned on a thread pool into its own WordCount; the WordCounts
+ * are then joined in file order, so that the Infos of every word
+ * are sorted by file id, then in document order, and each one
+ * carries the id of the file it comes from
+ */
+public class BatchWordCount {
+
+    /**
+     * Returns the regular files of the given directory and of
+     * its subdirectories, sorted by path
+     */
+    public static List<Path> listFiles(Path directory) throws IOException {
+        final List<Path> files = new ArrayList<Path>();
+        Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                if (attributes.isRegularFile()) {
+                    files.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        Collections.sort(files);
+        return files;
+    }
+
+    /**
+     * Builds the WordCount of the given files, read with the
+     * default charset, using 'parallelism' threads. The file id
+     * of the Infos of files.get(i) is i
+     */
+    public static WordCount count(List<Path> files, int parallelism) throws IOException {
+        return count(files, Charset.defaultCharset(), parallelism);
+    }
+
+    /**
+     * Builds the WordCount of the given files, read with the
+     * given charset, using 'parallelism' threads. The file id
+     * of the Infos of files.get(i) is i
+     */
+    public static WordCount count(List<Path> files, final Charset charset, int parallelism) throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism);
+        try {
+            List<Future<WordCount>> results = new ArrayList<Future<WordCount>>(files.size());
+            for (final Path file : files) {
+                results.add(pool.submit(new Callable<WordCount>() {
+                    public WordCount call() throws IOException {
+                        return countFile(file, charset);
+                    }
+                }));
+            }
+            // joins the files in order, each one as soon as it is counted
+            WordCount counter = new WordCount();
+            for (int fileId = 0; fileId < results.size(); fileId++) {
+                counter.addFile(results.get(fileId).get(), fileId);
+                results.set(fileId, null);
+            }
+            return counter;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Builds the WordCount of a single file
+     */
+    private static WordCount countFile(Path file, Charset charset) throws IOException {
+        WordCount counter = new WordCount();
+        try (FileChannel channel = FileChannel.open(file)) {
+            MappedWordScanner scanner = new MappedWordScanner(channel, charset);
+            while (scanner.hasNextWord()) {
+                scanner.countNextWord(counter);
+            }
+        }
+        return counter;
+    }
+}
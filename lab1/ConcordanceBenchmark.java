@@ -0,0 +1,423 @@
+
+import java.io.*;
+import java.lang.management.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Measures each phase of the concordance on its own, so that
+ * changes to the scanners and to WordCount can be compared run to run:
+ *   scan     MappedWordScanner.nextWord() over the whole input
+ *   count    MappedWordScanner.countNextWord() into a WordCount
+ *            (the scan and the adds, as Main -mmap does)
+ *   scan-ws  WordScanner.nextWord() over the whole input
+ *   count-ws WordScanner.countNextWord() into a WordCount (the
+ *            scan and the adds, as Main does by default)
+ *   add      WordCount.add() of words already scanned (the first
+ *            ADD_SAMPLE words of the input, replayed from memory)
+ *   display  WordCount.display() into a stream which drops the text
+ *
+ * Each phase is run for WARMUP iterations, then measured over
+ * ITERATIONS iterations; an iteration repeats the phase until it has
+ * run for at least MIN_ITERATION_TIME. The report gives, per phase,
+ * the latency (ns per word, mean and standard deviation over the
+ * iterations), the throughput (words/s and MB/s of input, or of output
+ * for display), and the allocations (bytes per word and MB/s, read
+ * from the allocation counter of the thread, as a gc profiler does).
+ *
+ * The inputs are the given text files and generated corpora of the
+ * given sizes (in MB), written once to the temporary directory and
+ * reused: Zipf-distributed words of a fixed vocabulary, in lines of
+ * 8 to 14 words with punctuation, so that they look like a text.
+ *
+ * Usage: java ConcordanceBenchmark [-warmup n] [-iterations n]
+ *                                  [-sizes mb,mb,...] [file ...]
+ */
+public class ConcordanceBenchmark {
+
+    private static final int WARMUP = 2;
+    private static final int ITERATIONS = 5;
+    private static final long MIN_ITERATION_TIME = 200000000L;
+    private static final int ADD_SAMPLE = 1 << 22;
+
+    private static final int VOCABULARY = 50000;
+    private static final long CORPUS_SEED = 20240101L;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) throws IOException {
+        int warmup = WARMUP;
+        int iterations = ITERATIONS;
+        List<Path> inputs = new ArrayList<Path>();
+        String sizes = "1,16";
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-warmup") && i + 1 < args.length) {
+                warmup = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("-iterations") && i + 1 < args.length) {
+                iterations = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("-sizes") && i + 1 < args.length) {
+                sizes = args[++i];
+            } else {
+                inputs.add(Paths.get(args[i]));
+            }
+        }
+        if (!sizes.isEmpty()) {
+            for (String size : sizes.split(",")) {
+                inputs.add(corpus(Integer.parseInt(size.trim())));
+            }
+        }
+
+        System.out.printf("%-24s %-8s %12s %10s %14s %10s %10s %10s%n", "input", "phase",
+                "ns/word", "+-", "words/s", "MB/s", "B/word", "alloc MB/s");
+        for (Path input : inputs) {
+            for (Phase phase : phases(input)) {
+                Result result = measure(phase, warmup, iterations);
+                System.out.printf("%-24s %-8s %12.2f %10.2f %14.0f %10.1f %10.1f %10.1f%n",
+                        input.getFileName(), phase.name, result.latency, result.deviation,
+                        1e9 / result.latency, result.bytesPerSecond / 1e6,
+                        result.allocatedPerWord, result.allocatedPerSecond / 1e6);
+            }
+        }
+    }
+
+    /**
+     * A phase of the concordance, run over one input
+     */
+    private abstract static class Phase {
+        String name;
+        // the number of bytes a run reads (or writes)
+        long bytes;
+
+        Phase(String name, long bytes) {
+            this.name = name;
+            this.bytes = bytes;
+        }
+
+        /**
+         * Runs the phase once and returns the number of words handled
+         */
+        abstract long run() throws IOException;
+    }
+
+    /**
+     * The measures of a phase
+     */
+    private static class Result {
+        double latency;
+        double deviation;
+        double bytesPerSecond;
+        double allocatedPerWord;
+        double allocatedPerSecond;
+    }
+
+    /**
+     * Returns the phases of the concordance of 'input'
+     */
+    private static List<Phase> phases(final Path input) throws IOException {
+        final long size = Files.size(input);
+        final WordCount counted = count(input);
+        final TokenSample sample = new TokenSample(input, ADD_SAMPLE);
+        final PrintStream discard = new PrintStream(new CountingOutputStream(), false);
+        long displayBytes = displayedBytes(counted);
+
+        List<Phase> phases = new ArrayList<Phase>();
+        phases.add(new Phase("scan", size) {
+            long run() throws IOException {
+                try (FileChannel channel = FileChannel.open(input)) {
+                    return scan(new MappedWordScanner(channel));
+                }
+            }
+        });
+        phases.add(new Phase("count", size) {
+            long run() throws IOException {
+                count(input);
+                return sample.total;
+            }
+        });
+        phases.add(new Phase("scan-ws", size) {
+            long run() throws IOException {
+                try (FileReader reader = new FileReader(input.toFile())) {
+                    return scan(new WordScanner(reader));
+                }
+            }
+        });
+        phases.add(new Phase("count-ws", size) {
+            long run() throws IOException {
+                try (FileReader reader = new FileReader(input.toFile())) {
+                    count(new WordScanner(reader));
+                }
+                return sample.total;
+            }
+        });
+        phases.add(new Phase("add", sample.bytes) {
+            long run() {
+                WordCount counter = new WordCount();
+                sample.replay(counter);
+                return sample.size;
+            }
+        });
+        phases.add(new Phase("display", displayBytes) {
+            long run() {
+                PrintStream out = System.out;
+                System.setOut(discard);
+                try {
+                    counted.display();
+                } finally {
+                    System.setOut(out);
+                }
+                return counted.size();
+            }
+        });
+        return phases;
+    }
+
+    /**
+     * Runs 'phase' for 'warmup' iterations, then measures it
+     * over 'iterations' iterations
+     */
+    private static Result measure(Phase phase, int warmup, int iterations) throws IOException {
+        for (int i = 0; i < warmup; i++) {
+            iterate(phase);
+        }
+        double[] latencies = new double[iterations];
+        long totalTime = 0;
+        long totalRuns = 0;
+        long totalWords = 0;
+        long totalAllocated = 0;
+        for (int i = 0; i < iterations; i++) {
+            long thread = Thread.currentThread().getId();
+            long allocated = THREADS.getThreadAllocatedBytes(thread);
+            long start = System.nanoTime();
+            long[] runsAndWords = iterate(phase);
+            long time = System.nanoTime() - start;
+            totalAllocated += THREADS.getThreadAllocatedBytes(thread) - allocated;
+            totalTime += time;
+            totalRuns += runsAndWords[0];
+            totalWords += runsAndWords[1];
+            latencies[i] = (double) time / Math.max(runsAndWords[1], 1);
+        }
+
+        Result result = new Result();
+        for (double latency : latencies) {
+            result.latency += latency / iterations;
+        }
+        for (double latency : latencies) {
+            result.deviation += (latency - result.latency) * (latency - result.latency) / iterations;
+        }
+        result.deviation = Math.sqrt(result.deviation);
+        result.bytesPerSecond = phase.bytes * (double) totalRuns / totalTime * 1e9;
+        result.allocatedPerWord = (double) totalAllocated / Math.max(totalWords, 1);
+        result.allocatedPerSecond = totalAllocated / (double) totalTime * 1e9;
+        return result;
+    }
+
+    /**
+     * Runs 'phase' until MIN_ITERATION_TIME has passed and returns
+     * the number of runs and the number of words handled
+     */
+    private static long[] iterate(Phase phase) throws IOException {
+        long start = System.nanoTime();
+        long runs = 0;
+        long words = 0;
+        do {
+            words += phase.run();
+            runs++;
+        } while (System.nanoTime() - start < MIN_ITERATION_TIME);
+        return new long[] { runs, words };
+    }
+
+    /**
+     * Returns the number of words 'scanner' hands out
+     */
+    private static long scan(WordSource scanner) throws IOException {
+        long words = 0;
+        while (scanner.hasNextWord()) {
+            scanner.nextWord();
+            words++;
+        }
+        return words;
+    }
+
+    /**
+     * Returns the WordCount of 'input', read by a MappedWordScanner
+     */
+    private static WordCount count(Path input) throws IOException {
+        try (FileChannel channel = FileChannel.open(input)) {
+            return count(new MappedWordScanner(channel));
+        }
+    }
+
+    /**
+     * Returns the WordCount of the words 'scanner' hands out
+     */
+    private static WordCount count(WordSource scanner) throws IOException {
+        WordCount counter = new WordCount();
+        while (scanner.hasNextWord()) {
+            scanner.countNextWord(counter);
+        }
+        return counter;
+    }
+
+    /**
+     * Returns the number of bytes WordCount.display()
+     * writes for 'counter'
+     */
+    private static long displayedBytes(WordCount counter) {
+        CountingOutputStream bytes = new CountingOutputStream();
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(bytes, false));
+        try {
+            counter.display();
+        } finally {
+            System.out.flush();
+            System.setOut(out);
+        }
+        return bytes.count;
+    }
+
+    /**
+     * The words of the start of an input, with their positions,
+     * kept in memory so that they can be added again and again
+     */
+    private static class TokenSample implements WordSink {
+        // the number of words of the whole input
+        long total;
+        // the number of words of the sample, and the bytes they come from
+        int size;
+        long bytes;
+
+        private int limit;
+        // the chars of the words, in a StringBuilder until the first replay
+        private StringBuilder text;
+        private char[] sampleChars;
+        private int[] starts;
+        private int[] lines;
+        private int[] positions;
+
+        TokenSample(Path input, int limit) throws IOException {
+            this.limit = limit;
+            this.text = new StringBuilder();
+            this.starts = new int[1024 + 1];
+            this.lines = new int[1024];
+            this.positions = new int[1024];
+            try (FileChannel channel = FileChannel.open(input)) {
+                MappedWordScanner scanner = new MappedWordScanner(channel);
+                while (scanner.hasNextWord()) {
+                    scanner.countNextWord(this);
+                }
+            }
+            this.bytes = this.size == this.total ? Files.size(input)
+                    : (long) (Files.size(input) * ((double) this.size / this.total));
+        }
+
+        public void add(char[] chars, int start, int length, int lineNum, int charPos) {
+            this.total++;
+            if (this.size == this.limit) {
+                return;
+            }
+            if (this.size + 1 == this.starts.length) {
+                int capacity = 2 * this.lines.length;
+                this.starts = Arrays.copyOf(this.starts, capacity + 1);
+                this.lines = Arrays.copyOf(this.lines, capacity);
+                this.positions = Arrays.copyOf(this.positions, capacity);
+            }
+            this.text.append(chars, start, length);
+            this.lines[this.size] = lineNum;
+            this.positions[this.size] = charPos;
+            this.starts[++this.size] = this.text.length();
+        }
+
+        /**
+         * Adds every word of the sample to 'counter'
+         */
+        void replay(WordSink counter) {
+            char[] chars = this.chars();
+            for (int i = 0; i < this.size; i++) {
+                counter.add(chars, this.starts[i], this.starts[i + 1] - this.starts[i], this.lines[i], this.positions[i]);
+            }
+        }
+
+        private char[] chars() {
+            if (this.sampleChars == null) {
+                this.sampleChars = this.text.toString().toCharArray();
+                this.text = null;
+            }
+            return this.sampleChars;
+        }
+    }
+
+    /**
+     * An output stream which only counts the bytes written to it
+     */
+    private static class CountingOutputStream extends OutputStream {
+        long count;
+
+        public void write(int b) {
+            this.count++;
+        }
+
+        public void write(byte[] b, int off, int len) {
+            this.count += len;
+        }
+    }
+
+    /**
+     * Returns a generated corpus of 'megabytes' MB, writing it to
+     * the temporary directory unless it is already there
+     */
+    private static Path corpus(int megabytes) throws IOException {
+        Path file = Paths.get(System.getProperty("java.io.tmpdir"), "concordance-" + megabytes + "mb.txt");
+        long size = (long) megabytes << 20;
+        if (Files.exists(file) && Files.size(file) == size) {
+            return file;
+        }
+        Random random = new Random(CORPUS_SEED);
+        String[] vocabulary = new String[VOCABULARY];
+        for (int i = 0; i < VOCABULARY; i++) {
+            StringBuilder sb = new StringBuilder();
+            for (int j = 2 + random.nextInt(4) + random.nextInt(5); j > 0; j--) {
+                sb.append((char) ('a' + random.nextInt(26)));
+            }
+            if (random.nextInt(50) == 0) {
+                sb.insert(1 + random.nextInt(sb.length() - 1), '\'');
+            }
+            vocabulary[i] = sb.toString();
+        }
+        // cumulative Zipf weights: the word of rank r is drawn with a weight 1 / r
+        double[] cumulative = new double[VOCABULARY];
+        double sum = 0;
+        for (int i = 0; i < VOCABULARY; i++) {
+            sum += 1.0 / (i + 1);
+            cumulative[i] = sum;
+        }
+        String[] separators = { " ", " ", " ", " ", " ", ", ", "; ", " - " };
+
+        Path temporary = Files.createTempFile(file.getParent(), "concordance", ".tmp");
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(
+                Files.newOutputStream(temporary), StandardCharsets.US_ASCII), 1 << 16)) {
+            StringBuilder line = new StringBuilder();
+            long written = 0;
+            while (written < size) {
+                line.setLength(0);
+                for (int words = 8 + random.nextInt(7); words > 0; words--) {
+                    int rank = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+                    String word = vocabulary[rank < 0 ? Math.min(-rank - 1, VOCABULARY - 1) : rank];
+                    if (line.length() == 0) {
+                        line.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+                    } else {
+                        line.append(separators[random.nextInt(separators.length)]).append(word);
+                    }
+                }
+                line.append(".\n");
+                int length = (int) Math.min(line.length(), size - written);
+                out.write(line.toString(), 0, length);
+                written += length;
+            }
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+        return file;
+    }
+}
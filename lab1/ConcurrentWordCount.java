@@ -0,0 +1,197 @@
+import java.util.*;
+import java.util.concurrent.locks.*;
+
+/**
+ * A class for the ConcurrentWordCount data structure.
+ * A ConcurrentWordCount holds the words which many threads add to it
+ * at the same time, typically one thread per input (source), and
+ * builds a WordCount of them through snapshot().
+ *
+ * The words are spread by hash code over STRIPES stripes, each one a
+ * WordTable of its words with a lock of its own, held only while an
+ * Info is added to one of these words: threads adding words of
+ * different stripes never touch the same lock. As in a WordCount, a
+ * word given as a slice of a char array is looked up straight from the
+ * array, and a String is only built the first time the word is seen.
+ * Every Info carries the id of its source, and the Infos of a source
+ * stay in the order the source added them. snapshot() and display()
+ * take the locks of all the stripes for a moment, so that they see
+ * every word at the same instant
+ */
+public class ConcurrentWordCount {
+
+    private static final int STRIPE_BITS = 6;
+    private static final int STRIPES = 1 << STRIPE_BITS;
+
+    private Stripe[] stripes;
+
+    /**
+     * Builds an empty ConcurrentWordCount
+     */
+    public ConcurrentWordCount() {
+        this.stripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            this.stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Adds an Info with the source id 'sourceId', line number
+     * 'lineNum' and character position 'charPos' in the list of
+     * Infos of the given word 'word'
+     */
+    public void add(int sourceId, String word, int lineNum, int charPos) {
+        if (sourceId < 0) {
+            throw new IllegalArgumentException("negative source id: " + sourceId);
+        }
+        Stripe stripe = this.stripeOf(word.hashCode());
+        stripe.lock.lock();
+        try {
+            stripe.infosOf(word).add(sourceId, lineNum, charPos);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Adds an Info with the source id 'sourceId', line number
+     * 'lineNum' and character position 'charPos' in the list of
+     * Infos of the lower-case form of the word text[start .. start +
+     * length - 1]. The word is looked up straight from 'text': a
+     * String is only built the first time a word is seen
+     */
+    public void add(int sourceId, char[] text, int start, int length, int lineNum, int charPos) {
+        if (sourceId < 0) {
+            throw new IllegalArgumentException("negative source id: " + sourceId);
+        }
+        if (WordTable.ASCII_FOLDS) {
+            // the hash code of the lower-case word, as String.hashCode
+            // gives it, if the word can be lower-cased char by char
+            int end = start + length;
+            int hash = 0;
+            int i = start;
+            while (i < end && text[i] < 0x80) {
+                hash = 31 * hash + WordTable.toLower(text[i]);
+                i++;
+            }
+            if (i == end) {
+                Stripe stripe = this.stripeOf(hash);
+                stripe.lock.lock();
+                try {
+                    InfoList wordInfos = stripe.table.get(text, start, length);
+                    if (wordInfos == null) {
+                        wordInfos = stripe.infosOf(new String(text, start, length).toLowerCase());
+                    }
+                    wordInfos.add(sourceId, lineNum, charPos);
+                } finally {
+                    stripe.lock.unlock();
+                }
+                return;
+            }
+        }
+        this.add(sourceId, new String(text, start, length).toLowerCase(), lineNum, charPos);
+    }
+
+    /**
+     * Returns a WordSink which adds the words it is given,
+     * lower-cased, with the source id 'sourceId'. Each thread
+     * (source) must use its own sink
+     */
+    public WordSink sink(final int sourceId) {
+        return new WordSink() {
+            public void add(char[] text, int start, int length, int lineNum, int charPos) {
+                ConcurrentWordCount.this.add(sourceId, text, start, length, lineNum, charPos);
+            }
+        };
+    }
+
+    /**
+     * Returns a WordCount holding the words added so far. The Infos
+     * of each word are sorted by source id (in the order each source
+     * added them), whatever the order the sources were interleaved in
+     */
+    public WordCount snapshot() {
+        WordCount counter = new WordCount();
+        int locked = 0;
+        try {
+            for (; locked < STRIPES; locked++) {
+                this.stripes[locked].lock.lock();
+            }
+            for (Stripe stripe : this.stripes) {
+                for (int w = 0; w < stripe.words.size(); w++) {
+                    String word = stripe.words.get(w);
+                    InfoList infos = stripe.infos.get(w);
+                    for (int i : infos.fileOrder()) {
+                        counter.add(word, infos.getFileId(i), infos.getLineNum(i), infos.getCharPos(i));
+                    }
+                }
+            }
+        } finally {
+            while (locked > 0) {
+                this.stripes[--locked].lock.unlock();
+            }
+        }
+        return counter;
+    }
+
+    /**
+     * Returns the number of distinct words
+     * added so far
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : this.stripes) {
+            stripe.lock.lock();
+            try {
+                size += stripe.words.size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Displays a snapshot of the ConcurrentWordCount on System.out
+     */
+    public void display() {
+        this.snapshot().display();
+    }
+
+    /**
+     * Returns the stripe of the words of hash code 'hash'. The stripe
+     * is picked by the high bits of the mixed hash code, so that the
+     * words of a stripe are still spread over all the slots of its
+     * WordTable (which are picked by the low bits)
+     */
+    private Stripe stripeOf(int hash) {
+        return this.stripes[(hash * 0x9E3779B9) >>> (32 - STRIPE_BITS)];
+    }
+
+    /**
+     * A stripe: the words of some hash codes, with their InfoLists
+     * (in a WordTable, and in the order the words were first added),
+     * and the lock of all of them
+     */
+    private static class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+        final WordTable table = new WordTable();
+        final List<String> words = new ArrayList<String>();
+        final List<InfoList> infos = new ArrayList<InfoList>();
+
+        /**
+         * Returns the InfoList of the given word 'word',
+         * adding an empty one if the word is new
+         */
+        InfoList infosOf(String word) {
+            InfoList wordInfos = this.table.get(word);
+            if (wordInfos == null) {
+                wordInfos = new InfoList();
+                this.table.put(word, wordInfos);
+                this.words.add(word);
+                this.infos.add(wordInfos);
+            }
+            return wordInfos;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+
+import java.io.*;
+
+/**
+ * This class implements a word (string) scanner which finds the
+ * same words as WordScanner, a block of 64 chars at a time.
+ *
+ * The chars are classified with a lookup table (letter, newline
+ * or other) instead of Character.isLetter. The table is filled from
+ * Character.isLetter once, so the non-ASCII chars are classified
+ * the same way, only without the call. Each block is classified at
+ * once into a bit mask of its letters, and a word is skipped a whole
+ * run of letters at a time by finding the next clear bit of the mask.
+ * The separators between two words are usually a char or two, so
+ * they are skipped char by char, counting the newlines
+ */
+public class FastWordScanner implements WordSource {
+
+    private static final int BLOCK_BITS = 6;
+    private static final int BLOCK_SIZE = 1 << BLOCK_BITS;
+
+    private static final byte LETTER = 1;
+    private static final byte NEWLINE = 2;
+
+    // the class of each char
+    private static final byte[] CLASS = new byte[Character.MAX_VALUE + 1];
+
+    static {
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            if (Character.isLetter((char) c)) {
+                CLASS[c] = LETTER;
+            }
+        }
+        CLASS['\n'] = NEWLINE;
+    }
+
+    private char[] content;
+    private int currentLine;
+    private int currentPos;
+    // index of the first char of the current line
+    private int lineStart;
+
+    // mask of the letters of the block starting at 'blockStart'
+    private int blockStart;
+    private long letters;
+
+    /**
+     * Builds a FastWordScanner object based on the given input
+     */
+    public FastWordScanner(FileReader input) throws IOException {
+        this(readLines(input));
+    }
+
+    /**
+     * Builds a FastWordScanner object over the given text, which
+     * must be made of lines each ended by a newline
+     */
+    FastWordScanner(char[] content) {
+        this.content = content;
+        this.currentLine = 1;
+        this.currentPos = 0;
+        this.lineStart = 0;
+        this.blockStart = -1;
+    }
+
+    /**
+     * Returns the text of 'input', with each line ended by a newline
+     * (as WordScanner reads it)
+     */
+    static char[] readLines(FileReader input) throws IOException {
+        BufferedReader reader = new BufferedReader(input);
+        String tmpStr = null;
+        StringBuilder sb = new StringBuilder();
+        while ((tmpStr = reader.readLine()) != null) {
+            sb.append(tmpStr);
+            sb.append('\n');
+        }
+        return sb.toString().toCharArray();
+    }
+
+    /**
+     * Returns the next word from input
+     * Precond: hasNextWord() must evaluate to true
+     */
+    public Word nextWord() {
+        if (hasNextWord()) {
+            skipSeparators();
+            if (this.currentPos == this.content.length) {
+                return null;
+            }
+            Info info = new Info(this.currentPos - this.lineStart + 1, this.currentLine);
+            int start = this.currentPos;
+            skipWord();
+            Word result = new Word(new String(this.content, start, this.currentPos - start), info);
+            skipSeparators();
+            return result;
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Adds the next word from input, lower-cased, to 'counter'
+     * with its line number and character position,
+     * without building any Word, Info or String
+     * Precond: hasNextWord() must evaluate to true
+     */
+    public void countNextWord(WordSink counter) {
+        if (hasNextWord()) {
+            skipSeparators();
+            if (this.currentPos == this.content.length) {
+                return;
+            }
+            int lineNum = this.currentLine;
+            int charPos = this.currentPos - this.lineStart + 1;
+            int start = this.currentPos;
+            skipWord();
+            counter.add(this.content, start, this.currentPos - start, lineNum, charPos);
+            skipSeparators();
+        }
+    }
+
+    /**
+     * Returns true if there is at least
+     * one word left in the input, false otherwise
+     */
+    public boolean hasNextWord() {
+        return this.currentPos < this.content.length;
+    }
+
+    /**
+     * Skips the chars up to the next letter (or the end of the input),
+     * counting the newlines skipped
+     */
+    private void skipSeparators() {
+        char[] text = this.content;
+        int pos = this.currentPos;
+        int charClass;
+        while (pos < text.length && (charClass = CLASS[text[pos]]) != LETTER) {
+            if (charClass == NEWLINE) {
+                this.currentLine++;
+                this.lineStart = pos + 1;
+            }
+            pos++;
+        }
+        this.currentPos = pos;
+    }
+
+    /**
+     * Skips the letters (and quotes in the word)
+     * of the word starting at the current position.
+     * The input always ends with a newline, which stops the word
+     */
+    private void skipWord() {
+        while (true) {
+            classify(this.currentPos);
+            long end = ~this.letters & (-1L << (this.currentPos - this.blockStart));
+            if (end == 0) {
+                this.currentPos = this.blockStart + BLOCK_SIZE;
+                continue;
+            }
+            this.currentPos = this.blockStart + Long.numberOfTrailingZeros(end);
+            if (!isQuoteInWord(this.currentPos)) {
+                return;
+            }
+            this.currentPos++;
+        }
+    }
+
+    /**
+     * Computes the mask of the block holding the char at 'pos',
+     * unless it is already computed
+     */
+    private void classify(int pos) {
+        int start = pos & -BLOCK_SIZE;
+        if (start == this.blockStart) {
+            return;
+        }
+        int end = Math.min(start + BLOCK_SIZE, this.content.length);
+        long letterBits = 0;
+        for (int i = start; i < end; i++) {
+            letterBits |= (long) (CLASS[this.content[i]] & LETTER) << (i - start);
+        }
+        this.blockStart = start;
+        this.letters = letterBits;
+    }
+
+    /**
+     * Returns if the char at 'index', which follows a letter,
+     * is a quote in a word (as WordScanner decides it)
+     */
+    private boolean isQuoteInWord(int index) {
+        return this.content[index] == '\'' && index != 1 && isLetter(index + 1);
+    }
+
+    private boolean isLetter(int index) {
+        return CLASS[this.content[index]] == LETTER;
+    }
+}
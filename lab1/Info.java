@@ -2,11 +2,16 @@
 /**
  * A class for the Info objects.
  * An Info object stores the line number and
- * the first character position of a word in an input
+ * the first character position of a word in an input.
+ * When several inputs are scanned together, it also
+ * stores the id of the input (file) the word comes from
  */
 public class Info {
 
-    private int charPos, lineNum;
+    /** The file id of the Infos of a single input */
+    public static final int NO_FILE = -1;
+
+    private int charPos, lineNum, fileId;
 
     /**
      * Builds an Info object with the given
@@ -14,8 +19,18 @@ public class Info {
      * number 'lineNum'
      */
     public Info(int charPos, int lineNum) {
+        this(charPos, lineNum, NO_FILE);
+    }
+
+    /**
+     * Builds an Info object with the given
+     * character position 'charPos', line
+     * number 'lineNum' and file id 'fileId'
+     */
+    public Info(int charPos, int lineNum, int fileId) {
         this.charPos = charPos;
         this.lineNum = lineNum;
+        this.fileId = fileId;
     }
 
     /**
@@ -34,13 +49,25 @@ public class Info {
         return this.lineNum;
     }
 
+    /**
+     * Returns the file id
+     * of this Info (NO_FILE for a single input)
+     */
+    public int getFileId() {
+        return this.fileId;
+    }
+
     /**
      * Returns a String representation of
      * this Info in the form "[ln:cp]"
      * where ln is the line number and
-     * cp the character position
+     * cp the character position, or "[f:ln:cp]"
+     * where f is the file id if it has one
      */
     public String toString() {
-        return String.format("[%d:%d]", this.lineNum, this.charPos);
+        if (this.fileId == NO_FILE) {
+            return String.format("[%d:%d]", this.lineNum, this.charPos);
+        }
+        return String.format("[%d:%d:%d]", this.fileId, this.lineNum, this.charPos);
     }
 }
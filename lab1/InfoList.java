@@ -0,0 +1,187 @@
+
+import java.util.*;
+
+/**
+ * A class for the list of Infos of a word.
+ * The Infos are not kept as objects: each one is packed
+ * in a single long (line number in the high int, character
+ * position in the low int) of a growable array. The file ids
+ * are kept in a parallel int array, which is only allocated
+ * once an Info with a file id is added.
+ * Info objects are only built when the list is iterated
+ */
+public class InfoList implements Iterable<Info> {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private long[] infos;
+    private int[] files;
+    private int size;
+
+    /**
+     * Builds an empty InfoList
+     */
+    public InfoList() {
+        this.infos = new long[INITIAL_CAPACITY];
+        this.size = 0;
+    }
+
+    /**
+     * Adds an Info with the given line number
+     * and character position at the end of this list
+     */
+    public void add(int lineNum, int charPos) {
+        if (this.size == this.infos.length) {
+            this.grow(this.size + (this.size >> 1) + 1);
+        }
+        if (this.files != null) {
+            this.files[this.size] = Info.NO_FILE;
+        }
+        this.infos[this.size++] = pack(lineNum, charPos);
+    }
+
+    /**
+     * Adds an Info with the given file id 'fileId', line number
+     * 'lineNum' and character position 'charPos' at the end of this list
+     */
+    public void add(int fileId, int lineNum, int charPos) {
+        if (this.files == null) {
+            if (fileId == Info.NO_FILE) {
+                this.add(lineNum, charPos);
+                return;
+            }
+            this.files = new int[this.infos.length];
+            Arrays.fill(this.files, 0, this.size, Info.NO_FILE);
+        }
+        this.add(lineNum, charPos);
+        this.files[this.size - 1] = fileId;
+    }
+
+    /**
+     * Adds all the Infos of 'other', which must have no file
+     * id, at the end of this list with the file id 'fileId'
+     */
+    public void addFile(InfoList other, int fileId) {
+        if (this.size + other.size > this.infos.length) {
+            this.grow(this.size + other.size);
+        }
+        if (this.files == null) {
+            this.files = new int[this.infos.length];
+            Arrays.fill(this.files, 0, this.size, Info.NO_FILE);
+        }
+        Arrays.fill(this.files, this.size, this.size + other.size, fileId);
+        System.arraycopy(other.infos, 0, this.infos, this.size, other.size);
+        this.size += other.size;
+    }
+
+    /**
+     * Adds all the Infos of 'other' at the end of this list,
+     * moving their line numbers 'lineOffset' lines down
+     */
+    public void addAll(InfoList other, int lineOffset) {
+        if (this.size + other.size > this.infos.length) {
+            this.grow(this.size + other.size);
+        }
+        if (other.files != null && this.files == null) {
+            this.files = new int[this.infos.length];
+            Arrays.fill(this.files, 0, this.size, Info.NO_FILE);
+        }
+        if (this.files != null) {
+            for (int i = 0; i < other.size; i++) {
+                this.files[this.size + i] = other.getFileId(i);
+            }
+        }
+        long shift = (long) lineOffset << 32;
+        for (int i = 0; i < other.size; i++) {
+            this.infos[this.size++] = other.infos[i] + shift;
+        }
+    }
+
+    /**
+     * Returns the number of Infos in this list
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns the line number of the i-th Info
+     */
+    public int getLineNum(int i) {
+        return (int) (this.infos[i] >>> 32);
+    }
+
+    /**
+     * Returns the character position of the i-th Info
+     */
+    public int getCharPos(int i) {
+        return (int) this.infos[i];
+    }
+
+    /**
+     * Returns the file id of the i-th Info
+     * (Info.NO_FILE if it has none)
+     */
+    public int getFileId(int i) {
+        return this.files == null ? Info.NO_FILE : this.files[i];
+    }
+
+    /**
+     * Returns true if some Info of this list has a file id
+     */
+    public boolean hasFileIds() {
+        return this.files != null;
+    }
+
+    /**
+     * Returns the indexes of the Infos of this list sorted by
+     * file id, the Infos of the same file staying in the order
+     * they were added
+     */
+    int[] fileOrder() {
+        long[] keys = new long[this.size];
+        for (int i = 0; i < this.size; i++) {
+            keys[i] = ((long) getFileId(i) << 32) | i;
+        }
+        Arrays.sort(keys);
+        int[] order = new int[this.size];
+        for (int i = 0; i < this.size; i++) {
+            order[i] = (int) keys[i];
+        }
+        return order;
+    }
+
+    /**
+     * Returns an iterator over the Infos of this list,
+     * in the order they were added
+     */
+    public Iterator<Info> iterator() {
+        return new Iterator<Info>() {
+            private int next = 0;
+
+            public boolean hasNext() {
+                return this.next < size;
+            }
+
+            public Info next() {
+                if (this.next >= size) {
+                    throw new NoSuchElementException();
+                }
+                Info info = new Info(getCharPos(this.next), getLineNum(this.next), getFileId(this.next));
+                this.next++;
+                return info;
+            }
+        };
+    }
+
+    private void grow(int capacity) {
+        this.infos = Arrays.copyOf(this.infos, capacity);
+        if (this.files != null) {
+            this.files = Arrays.copyOf(this.files, capacity);
+        }
+    }
+
+    private static long pack(int lineNum, int charPos) {
+        return ((long) lineNum << 32) | (charPos & 0xFFFFFFFFL);
+    }
+}
@@ -1,27 +1,236 @@
 
 import java.io.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
 
 /**
  * Main class for testing. You should not change this
  * class except the the name of the input file
+ *
+ * Usage: java Main [-mmap | -parallel | -fast] [-save index | -top k | query] [file]
+ *        java Main [-concurrent] [-save index | -top k | query] file|directory ...
+ *        java Main -top k -approx epsilon delta [file]
+ *        java Main -load index [word ...]
+ *   -mmap        streams the file through a MappedWordScanner
+ *                instead of loading it in memory
+ *   -fast        scans the file with a FastWordScanner
+ *   -parallel    scans shards of the file on all the available
+ *                processors (see ParallelWordCount)
+ *   -save index  writes the word count to the index file 'index'
+ *                instead of displaying it
+ *   -top k       displays only the k most frequent words
+ *                with their number of occurrences
+ *   -prefix p    (a query) displays only the words starting with p
+ *   -range from to
+ *                (a query) displays only the words from 'from'
+ *                (included) to 'to' (excluded)
+ *   -approx epsilon delta
+ *                estimates the k most frequent words with a
+ *                count-min sketch (see ApproximateWordCount)
+ *                instead of building the word count
+ *   -load index  answers from the index file 'index': displays the
+ *                Infos of the given words, or the whole word count
+ *                (after the files it was counted from, if several)
+ * Given several files or a directory, counts all the files (those of
+ * the directory and its subdirectories) together on all the available
+ * processors (see BatchWordCount): the files are listed with their id,
+ * and each Info is displayed as [file id:line:position]. With
+ * -concurrent, the files are scanned on the same number of threads
+ * straight into a single ConcurrentWordCount, and a single file is
+ * counted (and displayed) this way as well
  */
 public class Main {
 
+    private static final String DEFAULT_FILE = "/home/fengdingwen/Codings/Compiler/lab1/text1.txt";
+
     /**
      * The main method
      */
     public static void main(String[] args) throws IOException, FileNotFoundException {
-        // the FileReader
-        FileReader fr = new FileReader("/home/fengdingwen/Codings/Compiler/lab1/text1.txt");
-        // builds the scanner
-        WordScanner scanner = new WordScanner(fr);
+        boolean mapped = false;
+        boolean parallel = false;
+        boolean fast = false;
+        boolean concurrent = false;
+        String save = null;
+        int top = -1;
+        String prefix = null;
+        String from = null;
+        String to = null;
+        double epsilon = -1;
+        double delta = -1;
+        String fileName = DEFAULT_FILE;
+        List<Path> files = new ArrayList<Path>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-mmap")) {
+                mapped = true;
+            } else if (args[i].equals("-parallel")) {
+                parallel = true;
+            } else if (args[i].equals("-fast")) {
+                fast = true;
+            } else if (args[i].equals("-concurrent")) {
+                concurrent = true;
+            } else if (args[i].equals("-save") && i + 1 < args.length) {
+                save = args[++i];
+            } else if (args[i].equals("-top") && i + 1 < args.length) {
+                top = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("-prefix") && i + 1 < args.length) {
+                prefix = args[++i].toLowerCase();
+            } else if (args[i].equals("-range") && i + 2 < args.length) {
+                from = args[++i].toLowerCase();
+                to = args[++i].toLowerCase();
+            } else if (args[i].equals("-approx") && i + 2 < args.length) {
+                epsilon = Double.parseDouble(args[++i]);
+                delta = Double.parseDouble(args[++i]);
+            } else if (args[i].equals("-load") && i + 1 < args.length) {
+                query(new WordIndexReader(Paths.get(args[i + 1])), args, i + 2);
+                return;
+            } else {
+                fileName = args[i];
+                files.add(Paths.get(args[i]));
+            }
+        }
+        if (files.size() == 1 && Files.isDirectory(files.get(0))) {
+            files = BatchWordCount.listFiles(files.get(0));
+        } else if (files.size() < 2) {
+            files = concurrent ? Collections.singletonList(Paths.get(fileName)) : null;
+        }
+
+        if (epsilon > 0) {
+            approximate(fileName, top < 0 ? 10 : top, epsilon, delta);
+            return;
+        }
+
         // builds a word count
         WordCount counter = new WordCount();
+        if (files != null) {
+            if (concurrent) {
+                counter = countConcurrently(files);
+            } else {
+                counter = BatchWordCount.count(files, Runtime.getRuntime().availableProcessors());
+            }
+            for (int fileId = 0; fileId < files.size(); fileId++) {
+                System.out.printf("%d: %s\n", fileId, files.get(fileId));
+            }
+        } else if (parallel) {
+            try (FileChannel channel = FileChannel.open(Paths.get(fileName))) {
+                counter = ParallelWordCount.count(channel, Runtime.getRuntime().availableProcessors());
+            }
+        } else if (mapped) {
+            try (FileChannel channel = FileChannel.open(Paths.get(fileName))) {
+                count(new MappedWordScanner(channel), counter);
+            }
+        } else if (fast) {
+            count(new FastWordScanner(new FileReader(fileName)), counter);
+        } else {
+            // the FileReader
+            FileReader fr = new FileReader(fileName);
+            // builds the scanner
+            count(new WordScanner(fr), counter);
+        }
+        if (save != null) {
+            WordIndexWriter.write(counter, files != null ? files : Collections.<Path>emptyList(), Paths.get(save));
+        } else if (top >= 0) {
+            for (String word : counter.topWords(top)) {
+                System.out.printf("%14s (%d)\n", word, counter.getInfoList(word).size());
+            }
+        } else if (prefix != null) {
+            counter.display(counter.wordsWithPrefix(prefix));
+        } else if (from != null) {
+            counter.display(counter.wordsInRange(from, to));
+        } else {
+            // displays the word count
+            counter.display();
+        }
+    }
+
+    /**
+     * Displays the estimated 'k' most frequent words of the file
+     * 'fileName', streamed into an ApproximateWordCount
+     */
+    private static void approximate(String fileName, int k, double epsilon, double delta) throws IOException {
+        ApproximateWordCount counter = new ApproximateWordCount(k, epsilon, delta);
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName))) {
+            count(new MappedWordScanner(channel), counter);
+        }
+        for (String word : counter.topWords()) {
+            System.out.printf("%14s (~%d)\n", word, counter.estimate(word));
+        }
+        System.out.printf("(%d words; each estimate is at most %d too high with probability %.4f)\n",
+                counter.getTotal(), counter.getErrorBound(), 1 - counter.getDelta());
+    }
+
+    /**
+     * Displays the Infos of the words args[from ..] found in 'index',
+     * in the format of WordCount.display(), or the whole index if
+     * no word is given, after the files of the index with their id
+     */
+    private static void query(WordIndexReader index, String[] args, int from) {
+        for (int fileId = 0; fileId < index.fileCount(); fileId++) {
+            System.out.printf("%d: %s\n", fileId, index.fileName(fileId));
+        }
+        if (from == args.length) {
+            index.display();
+            return;
+        }
+        for (int i = from; i < args.length; i++) {
+            String word = args[i].toLowerCase();
+            StringBuilder sb = new StringBuilder();
+            int count = 0;
+            Iterator<Info> infos = index.getListIterator(word);
+            while (infos != null && infos.hasNext()) {
+                sb.append(' ').append(infos.next().toString());
+                count++;
+            }
+            System.out.printf("%14s (%d):%s\n", word, count, sb);
+        }
+    }
+
+    /**
+     * Builds the WordCount of the given files, scanning them on a
+     * thread pool of one thread per processor (as BatchWordCount
+     * does) into a shared ConcurrentWordCount
+     */
+    private static WordCount countConcurrently(final List<Path> files) throws IOException {
+        final ConcurrentWordCount counter = new ConcurrentWordCount();
+        ExecutorService pool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try {
+            List<Future<Void>> results = new ArrayList<Future<Void>>(files.size());
+            for (int i = 0; i < files.size(); i++) {
+                final int fileId = i;
+                results.add(pool.submit(new Callable<Void>() {
+                    public Void call() throws IOException {
+                        try (FileChannel channel = FileChannel.open(files.get(fileId))) {
+                            count(new MappedWordScanner(channel), counter.sink(fileId));
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> result : results) {
+                result.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } finally {
+            pool.shutdownNow();
+        }
+        return counter.snapshot();
+    }
+
+    /**
+     * Adds every word of 'scanner' to 'counter'
+     */
+    private static void count(WordSource scanner, WordSink counter) throws IOException {
         while (scanner.hasNextWord()) {
-            Word w = scanner.nextWord();
-            counter.add(w.getWord().toLowerCase(), w.getInfo());
+            scanner.countNextWord(counter);
         }
-        // displays the word count
-        counter.display();
     }
 }
@@ -0,0 +1,266 @@
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.util.*;
+
+/**
+ * This class implements a streaming word (string) scanner.
+ * The input file is memory-mapped one window at a time and
+ * decoded incrementally, so only a fixed amount of text is
+ * held in memory whatever the size of the file.
+ * It returns the same Words (line numbers and character
+ * positions included) as WordScanner does on the same file
+ */
+public class MappedWordScanner implements WordSource {
+
+    private static final int MAP_WINDOW = 1 << 25;   // bytes mapped at once
+    private static final int CHAR_WINDOW = 1 << 16;  // chars decoded at once
+    private static final int EOF = -1;
+
+    private FileChannel channel;
+    private long end;
+    private long mapStart;
+    private MappedByteBuffer bytes;
+    private CharsetDecoder decoder;
+    private CharBuffer chars;
+    private boolean endOfInput;
+    private boolean flushed;
+
+    private boolean atLineStart;
+    private int ahead;
+    private boolean hasAhead;
+    private long index;
+    private int currentLine;
+    private int posInLine;
+    private char[] word;
+    private int wordLength;
+
+    /**
+     * Builds a MappedWordScanner object reading the given channel
+     * with the default charset (as a FileReader does)
+     */
+    public MappedWordScanner(FileChannel channel) throws IOException {
+        this(channel, Charset.defaultCharset());
+    }
+
+    /**
+     * Builds a MappedWordScanner object reading the given channel
+     * with the given charset
+     */
+    public MappedWordScanner(FileChannel channel, Charset charset) throws IOException {
+        this(channel, charset, 0, channel.size());
+    }
+
+    /**
+     * Builds a MappedWordScanner object reading the bytes of the
+     * given channel from 'start' (included) to 'end' (excluded)
+     * with the given charset. 'start' must be the first byte of a
+     * line; lines are numbered from 1 at 'start'
+     */
+    public MappedWordScanner(FileChannel channel, Charset charset, long start, long end) throws IOException {
+        this.channel = channel;
+        this.end = end;
+        this.decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.chars = CharBuffer.allocate(CHAR_WINDOW);
+        this.chars.flip();
+        this.endOfInput = false;
+        this.flushed = false;
+        this.atLineStart = true;
+        this.hasAhead = false;
+        // only compared with 1 (a quote there never joins a word, as
+        // in WordScanner), so the byte offset stands in for the char index
+        this.index = start;
+        this.currentLine = 1;
+        this.posInLine = 1;
+        this.word = new char[64];
+        map(start);
+    }
+
+    /**
+     * Returns the next word from input
+     * Precond: there must be at least
+     * one word left in the input
+     * (i.e. hasNextWord() must evaluate to true)
+     */
+    public Word nextWord() throws IOException {
+        if (hasNextWord()) {
+            Info info = new Info(this.posInLine, this.currentLine);
+            scanWord();
+            return new Word(new String(this.word, 0, this.wordLength), info);
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Adds the next word from input, lower-cased, to 'counter'
+     * with its line number and character position.
+     * The word is passed as a slice of the scanner's own
+     * buffer, so no Word, Info or String is built
+     * Precond: hasNextWord() must evaluate to true
+     */
+    public void countNextWord(WordSink counter) throws IOException {
+        if (hasNextWord()) {
+            int lineNum = this.currentLine;
+            int charPos = this.posInLine;
+            scanWord();
+            counter.add(this.word, 0, this.wordLength, lineNum, charPos);
+        }
+    }
+
+    /**
+     * Reads the word starting at the current position into 'word'
+     */
+    private void scanWord() throws IOException {
+        this.wordLength = 0;
+        while (true) {
+            int c = peek();
+            if (isLetter(c)) {
+                append((char) c);
+                advance();
+            } else if (c == '\'' && this.index != 1) {
+                // the quote belongs to the word only if a letter follows it;
+                // otherwise it is skipped like any other separator
+                advance();
+                if (!isLetter(peek())) {
+                    break;
+                }
+                append('\'');
+            } else {
+                break;
+            }
+        }
+    }
+
+    private void append(char c) {
+        if (this.wordLength == this.word.length) {
+            this.word = Arrays.copyOf(this.word, 2 * this.wordLength);
+        }
+        this.word[this.wordLength++] = c;
+    }
+
+    /**
+     * Returns true if there is at least
+     * one word left in the input, false otherwise
+     */
+    public boolean hasNextWord() throws IOException {
+        while (peek() != EOF && !isLetter(peek())) {
+            advance();
+        }
+        return peek() != EOF;
+    }
+
+    /**
+     * Returns the number of lines
+     * read so far
+     */
+    public int getLineCount() {
+        return this.currentLine - 1;
+    }
+
+    private static boolean isLetter(int c) {
+        return c != EOF && Character.isLetter((char) c);
+    }
+
+    /**
+     * Returns the next char of the input without consuming it
+     */
+    private int peek() throws IOException {
+        if (!this.hasAhead) {
+            this.ahead = read();
+            this.hasAhead = true;
+        }
+        return this.ahead;
+    }
+
+    /**
+     * Consumes the next char of the input, keeping
+     * the line number and the position in the line up to date
+     */
+    private void advance() throws IOException {
+        int c = peek();
+        this.hasAhead = false;
+        this.index++;
+        if (c == '\n') {
+            this.currentLine++;
+            this.posInLine = 1;
+        } else {
+            this.posInLine++;
+        }
+    }
+
+    /**
+     * Returns the next char of the input with the line terminators
+     * normalized the way BufferedReader.readLine() sees them:
+     * "\r\n" and "\r" read as '\n', and a missing '\n' is added
+     * at the end of the last line
+     */
+    private int read() throws IOException {
+        int c = rawRead();
+        if (c == '\r') {
+            if (rawPeek() == '\n') {
+                rawRead();
+            }
+            c = '\n';
+        } else if (c == EOF && !this.atLineStart) {
+            c = '\n';
+        }
+        this.atLineStart = (c == '\n');
+        return c;
+    }
+
+    private int rawRead() throws IOException {
+        if (!this.chars.hasRemaining() && !fill()) {
+            return EOF;
+        }
+        return this.chars.get();
+    }
+
+    private int rawPeek() throws IOException {
+        if (!this.chars.hasRemaining() && !fill()) {
+            return EOF;
+        }
+        return this.chars.get(this.chars.position());
+    }
+
+    /**
+     * Decodes the next window of chars, mapping the next
+     * window of the file when the current one is used up.
+     * Returns false at the end of the input
+     */
+    private boolean fill() throws IOException {
+        this.chars.clear();
+        while (this.chars.hasRemaining() && !this.flushed) {
+            if (!this.endOfInput) {
+                boolean last = this.mapStart + this.bytes.limit() == this.end;
+                CoderResult result = this.decoder.decode(this.bytes, this.chars, last);
+                if (result.isOverflow()) {
+                    break;
+                }
+                if (!last) {
+                    // an incomplete byte sequence stays in the buffer
+                    // and is decoded again from the next window
+                    map(this.mapStart + this.bytes.position());
+                    continue;
+                }
+                this.endOfInput = true;
+            }
+            if (this.decoder.flush(this.chars).isOverflow()) {
+                break;
+            }
+            this.flushed = true;
+        }
+        this.chars.flip();
+        return this.chars.hasRemaining();
+    }
+
+    private void map(long start) throws IOException {
+        long size = Math.min(MAP_WINDOW, this.end - start);
+        this.bytes = this.channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+        this.mapStart = start;
+    }
+}
@@ -0,0 +1,168 @@
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Builds the WordCount of a file in parallel.
+ * The file is cut into shards at line boundaries, every shard is
+ * scanned on a fork-join pool into its own WordCount (with line
+ * numbers relative to the shard), and the WordCounts of adjacent
+ * shards are joined back in file order, so that the Infos of every
+ * word stay in document order with their absolute line numbers
+ */
+public class ParallelWordCount {
+
+    private static final int SHARDS_PER_THREAD = 4;
+    private static final long MIN_SHARD_SIZE = 1 << 20;
+
+    /**
+     * Builds the WordCount of the given file, read with the
+     * default charset, using 'parallelism' threads
+     */
+    public static WordCount count(FileChannel channel, int parallelism) throws IOException {
+        return count(channel, Charset.defaultCharset(), parallelism);
+    }
+
+    /**
+     * Builds the WordCount of the given file, read with
+     * the given charset, using 'parallelism' threads
+     */
+    public static WordCount count(FileChannel channel, Charset charset, int parallelism) throws IOException {
+        long size = channel.size();
+        int shards = (int) Math.max(1, Math.min((long) parallelism * SHARDS_PER_THREAD, size / MIN_SHARD_SIZE));
+        if (!splitsAtNewlineBytes(charset)) {
+            shards = 1;
+        }
+        long[] bounds = split(channel, shards);
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.invoke(new ShardTask(channel, charset, bounds, 0, shards)).counter;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Returns true if a newline is encoded as the single byte '\n'
+     * in the given charset, so that the input can be cut right after
+     * any '\n' byte (true for ASCII, the ISO-8859 family and UTF-8)
+     */
+    private static boolean splitsAtNewlineBytes(Charset charset) {
+        if (!charset.canEncode()) {
+            return false;
+        }
+        byte[] newline = "\n".getBytes(charset);
+        return newline.length == 1 && newline[0] == '\n';
+    }
+
+    /**
+     * Returns the bounds of 'shards' shards of about the same size,
+     * each one starting right after a '\n' byte (or at the start of
+     * the file). Shard i goes from bounds[i] to bounds[i + 1]
+     */
+    private static long[] split(FileChannel channel, int shards) throws IOException {
+        long size = channel.size();
+        long[] bounds = new long[shards + 1];
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        for (int i = 1; i < shards; i++) {
+            long pos = Math.max(size / shards * i, bounds[i - 1]);
+            bounds[i] = nextLineStart(channel, pos, buffer);
+        }
+        bounds[shards] = size;
+        return bounds;
+    }
+
+    /**
+     * Returns the position following the first '\n' byte
+     * at or after 'pos', or the size of the file if there is none
+     */
+    private static long nextLineStart(FileChannel channel, long pos, ByteBuffer buffer) throws IOException {
+        long size = channel.size();
+        while (pos < size) {
+            buffer.clear();
+            int read = channel.read(buffer, pos);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return pos + i + 1;
+                }
+            }
+            pos += read;
+        }
+        return size;
+    }
+
+    /**
+     * The WordCount of a run of consecutive shards,
+     * with the number of lines it spans
+     */
+    private static class Shard {
+        private WordCount counter;
+        private int lines;
+
+        Shard(WordCount counter, int lines) {
+            this.counter = counter;
+            this.lines = lines;
+        }
+    }
+
+    /**
+     * Scans the shards from 'from' (included) to 'to' (excluded):
+     * a single shard is scanned directly, a run of shards is split
+     * in two halves scanned in parallel and then joined
+     */
+    private static class ShardTask extends RecursiveTask<Shard> {
+        private static final long serialVersionUID = 1L;
+
+        private FileChannel channel;
+        private Charset charset;
+        private long[] bounds;
+        private int from;
+        private int to;
+
+        ShardTask(FileChannel channel, Charset charset, long[] bounds, int from, int to) {
+            this.channel = channel;
+            this.charset = charset;
+            this.bounds = bounds;
+            this.from = from;
+            this.to = to;
+        }
+
+        protected Shard compute() {
+            if (this.to - this.from == 1) {
+                try {
+                    return scan(this.bounds[this.from], this.bounds[this.to]);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            int middle = (this.from + this.to) >>> 1;
+            ShardTask first = new ShardTask(this.channel, this.charset, this.bounds, this.from, middle);
+            ShardTask second = new ShardTask(this.channel, this.charset, this.bounds, middle, this.to);
+            first.fork();
+            Shard last = second.compute();
+            Shard result = first.join();
+            result.counter.addAll(last.counter, result.lines);
+            result.lines += last.lines;
+            return result;
+        }
+
+        private Shard scan(long start, long end) throws IOException {
+            WordCount counter = new WordCount();
+            MappedWordScanner scanner = new MappedWordScanner(this.channel, this.charset, start, end);
+            while (scanner.hasNextWord()) {
+                scanner.countNextWord(counter);
+            }
+            return new Shard(counter, scanner.getLineCount());
+        }
+    }
+}
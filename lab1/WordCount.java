@@ -4,17 +4,22 @@ import java.util.*;
 /**
  * A class for the WordCount data structure.
  * A WordCount object is a map which pairs a word (string)
- * with a list of information (Info)
+ * with a list of information (Info), kept packed in an InfoList
  */
-public class WordCount {
+public class WordCount implements WordSink {
 
-    private Map<String, Vector<Info>> wordMap;
+    private Map<String, InfoList> wordMap;
+    private WordTable wordTable;
+    // the dictionary of the prefix and range queries,
+    // built on the first query after a new word is added
+    private WordTrie wordTrie;
 
     /**
      * Builds an empty WordCount
      */
     public WordCount() {
-        this.wordMap = new TreeMap<String, Vector<Info>>();
+        this.wordMap = new TreeMap<String, InfoList>();
+        this.wordTable = new WordTable();
     }
 
     /**
@@ -22,15 +27,77 @@ public class WordCount {
      * Infos of the given word 'word'
      */
     public void add(String word, Info info) {
-        if (this.wordMap.containsKey(word)) {
-            Vector<Info> wordInfos = this.wordMap.get(word);
-            wordInfos.addElement(info);
-            this.wordMap.put(word, wordInfos);
-        } else {
-            Vector<Info> wordInfos = new Vector<>();
-            wordInfos.addElement(info);
+        this.infosOf(word).add(info.getFileId(), info.getLineNum(), info.getCharPos());
+    }
+
+    /**
+     * Adds an Info with the given line number 'lineNum' and
+     * character position 'charPos' in the list of Infos of the
+     * given word 'word', without building the Info itself
+     */
+    public void add(String word, int lineNum, int charPos) {
+        this.infosOf(word).add(lineNum, charPos);
+    }
+
+    /**
+     * Adds an Info with the given file id 'fileId', line number
+     * 'lineNum' and character position 'charPos' in the list of
+     * Infos of the given word 'word'
+     */
+    public void add(String word, int fileId, int lineNum, int charPos) {
+        this.infosOf(word).add(fileId, lineNum, charPos);
+    }
+
+    /**
+     * Adds an Info with the given line number 'lineNum' and
+     * character position 'charPos' in the list of Infos of the
+     * lower-case form of the word text[start .. start + length - 1].
+     * The word is looked up straight from 'text': a String is only
+     * built the first time a word is seen
+     */
+    public void add(char[] text, int start, int length, int lineNum, int charPos) {
+        InfoList wordInfos = this.wordTable.get(text, start, length);
+        if (wordInfos == null) {
+            wordInfos = this.infosOf(new String(text, start, length).toLowerCase());
+        }
+        wordInfos.add(lineNum, charPos);
+    }
+
+    /**
+     * Adds all the Infos of 'other', moving their line numbers
+     * 'lineOffset' lines down, after the Infos of this WordCount.
+     * Used to join the WordCounts of consecutive parts of an input
+     */
+    public void addAll(WordCount other, int lineOffset) {
+        for (Map.Entry<String, InfoList> entry : other.wordMap.entrySet()) {
+            this.infosOf(entry.getKey()).addAll(entry.getValue(), lineOffset);
+        }
+    }
+
+    /**
+     * Adds all the Infos of 'other', the WordCount of a single
+     * input, after the Infos of this WordCount with the file id
+     * 'fileId'. Used to join the WordCounts of several inputs
+     */
+    public void addFile(WordCount other, int fileId) {
+        for (Map.Entry<String, InfoList> entry : other.wordMap.entrySet()) {
+            this.infosOf(entry.getKey()).addFile(entry.getValue(), fileId);
+        }
+    }
+
+    /**
+     * Returns the InfoList of the given word 'word',
+     * adding an empty one if the word is new
+     */
+    private InfoList infosOf(String word) {
+        InfoList wordInfos = this.wordTable.get(word);
+        if (wordInfos == null) {
+            wordInfos = new InfoList();
+            this.wordTable.put(word, wordInfos);
             this.wordMap.put(word, wordInfos);
+            this.wordTrie = null;
         }
+        return wordInfos;
     }
 
     /**
@@ -47,40 +114,153 @@ public class WordCount {
     }
 
     /**
-     * Displays the WordCount on System.out
+     * Returns the InfoList of the given word 'word'.
+     * If 'word' has no information returns null
      */
-    public void display() {
-        this.wordMap = this.sortMapByKey(this.wordMap);
+    public InfoList getInfoList(String word) {
+        return this.wordMap.get(word);
+    }
 
-        for (String word : this.wordMap.keySet()) {
-            System.out.printf("%14s (%d):", word, this.wordMap.get(word).size());
-            for (Info info : this.wordMap.get(word)) {
-                System.out.printf(" %s", info.toString());
-            }
-            System.out.print("\n");
+    /**
+     * Returns an iterator over the words of this WordCount
+     * starting with 'prefix', in alphabetical order
+     */
+    public Iterator<String> wordsWithPrefix(String prefix) {
+        return this.trie().withPrefix(prefix);
+    }
+
+    /**
+     * Returns an iterator over the words of this WordCount from
+     * 'from' (included) to 'to' (excluded), in alphabetical order
+     */
+    public Iterator<String> wordsInRange(String from, String to) {
+        return this.trie().inRange(from, to);
+    }
+
+    /**
+     * Returns the WordTrie of the words of this WordCount,
+     * building it if words were added since the last one
+     */
+    public WordTrie trie() {
+        if (this.wordTrie == null) {
+            String[] words = this.wordMap.keySet().toArray(new String[this.wordMap.size()]);
+            InfoList[] infos = this.wordMap.values().toArray(new InfoList[this.wordMap.size()]);
+            this.wordTrie = new WordTrie(words, infos);
         }
+        return this.wordTrie;
     }
 
-    private Map<String, Vector<Info>> sortMapByKey(Map<String, Vector<Info>> map) {
-        if (map == null || map.isEmpty()) {
-            return null;
+    /**
+     * Returns the words of this WordCount
+     * in alphabetical order
+     */
+    public Set<String> words() {
+        return Collections.unmodifiableSet(this.wordMap.keySet());
+    }
+
+    /**
+     * Returns the number of distinct words
+     * of this WordCount
+     */
+    public int size() {
+        return this.wordMap.size();
+    }
+
+    /**
+     * Returns the (at most) 'k' most frequent words of this
+     * WordCount, from the most frequent to the least frequent
+     * (words of the same frequency in alphabetical order).
+     * Only 'k' words are kept while the words are ranked
+     */
+    public List<String> topWords(int k) {
+        // a min-heap on the frequency, whose head is the word to drop first
+        PriorityQueue<RankedWord> heap = new PriorityQueue<RankedWord>(Math.max(1, k));
+        if (k > 0) {
+            for (Map.Entry<String, InfoList> entry : this.wordMap.entrySet()) {
+                int count = entry.getValue().size();
+                if (heap.size() < k) {
+                    heap.add(new RankedWord(entry.getKey(), count));
+                } else if (heap.peek().compareTo(entry.getKey(), count) < 0) {
+                    RankedWord dropped = heap.poll();
+                    dropped.word = entry.getKey();
+                    dropped.count = count;
+                    heap.add(dropped);
+                }
+            }
+        }
+        LinkedList<String> top = new LinkedList<String>();
+        while (!heap.isEmpty()) {
+            top.addFirst(heap.poll().word);
         }
+        return top;
+    }
+
+    /**
+     * A word with its number of occurrences, as ranked by topWords:
+     * ordered by increasing frequency (words of the same frequency
+     * in reverse alphabetical order)
+     */
+    private static class RankedWord implements Comparable<RankedWord> {
+        private String word;
+        private int count;
 
-        Map<String, Vector<Info>> sortMap = new TreeMap<String, Vector<Info>>(
-                new MapKeyComparator()
-        );
+        RankedWord(String word, int count) {
+            this.word = word;
+            this.count = count;
+        }
 
-        sortMap.putAll(map);
+        public int compareTo(RankedWord other) {
+            return this.compareTo(other.word, other.count);
+        }
 
-        return sortMap;
+        int compareTo(String otherWord, int otherCount) {
+            int cmp = Integer.compare(this.count, otherCount);
+            return cmp != 0 ? cmp : otherWord.compareTo(this.word);
+        }
     }
-}
 
-class MapKeyComparator implements Comparator<String>{
+    /**
+     * Displays the WordCount on System.out
+     */
+    public void display() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, InfoList> entry : this.wordMap.entrySet()) {
+            sb.setLength(0);
+            appendWord(sb, entry.getKey(), entry.getValue());
+            System.out.print(sb);
+        }
+    }
 
-    @Override
-    public int compare(String str1, String str2) {
+    /**
+     * Displays the given words of the WordCount on System.out,
+     * as display() does
+     */
+    public void display(Iterator<String> words) {
+        WordTrie trie = this.trie();
+        StringBuilder sb = new StringBuilder();
+        while (words.hasNext()) {
+            String word = words.next();
+            sb.setLength(0);
+            appendWord(sb, word, trie.get(word));
+            System.out.print(sb);
+        }
+    }
 
-        return str1.compareTo(str2);
+    /**
+     * Appends the line of 'word' and its Infos 'infos' to 'sb'
+     */
+    private static void appendWord(StringBuilder sb, String word, InfoList infos) {
+        for (int i = word.length(); i < 14; i++) {
+            sb.append(' ');
+        }
+        sb.append(word).append(" (").append(infos.size()).append("):");
+        for (int i = 0; i < infos.size(); i++) {
+            sb.append(" [");
+            if (infos.getFileId(i) != Info.NO_FILE) {
+                sb.append(infos.getFileId(i)).append(':');
+            }
+            sb.append(infos.getLineNum(i)).append(':').append(infos.getCharPos(i)).append(']');
+        }
+        sb.append('\n');
     }
 }
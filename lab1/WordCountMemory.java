@@ -0,0 +1,105 @@
+
+import java.io.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Compares the heap taken by a WordCount (packed InfoLists)
+ * with the former representation of the concordance
+ * (a TreeMap pairing each word with a Vector of Info objects).
+ *
+ * Usage: java WordCountMemory file
+ */
+public class WordCountMemory {
+
+    /**
+     * The main method
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("usage: java WordCountMemory file");
+            System.exit(-1);
+        }
+        Path file = Paths.get(args[0]);
+
+        long base = usedHeap();
+        Map<String, Vector<Info>> vectors = buildVectors(file);
+        long vectorBytes = usedHeap() - base;
+        long infos = countInfos(vectors);
+        vectors = null;
+
+        base = usedHeap();
+        WordCount packed = buildPacked(file);
+        long packedBytes = usedHeap() - base;
+
+        System.out.printf("%d words, %d occurrences%n", packed.size(), infos);
+        System.out.printf("%-24s %14d bytes (%.1f bytes/occurrence)%n",
+                "TreeMap<Vector<Info>>", vectorBytes, (double) vectorBytes / Math.max(infos, 1));
+        System.out.printf("%-24s %14d bytes (%.1f bytes/occurrence)%n",
+                "WordCount (InfoList)", packedBytes, (double) packedBytes / Math.max(infos, 1));
+    }
+
+    /**
+     * Returns the number of Infos held in 'map'
+     */
+    private static long countInfos(Map<String, Vector<Info>> map) {
+        long infos = 0;
+        for (Vector<Info> wordInfos : map.values()) {
+            infos += wordInfos.size();
+        }
+        return infos;
+    }
+
+    /**
+     * Builds the concordance of 'file' the way WordCount used to
+     */
+    private static Map<String, Vector<Info>> buildVectors(Path file) throws IOException {
+        Map<String, Vector<Info>> map = new TreeMap<String, Vector<Info>>();
+        try (FileChannel channel = FileChannel.open(file)) {
+            MappedWordScanner scanner = new MappedWordScanner(channel);
+            while (scanner.hasNextWord()) {
+                Word w = scanner.nextWord();
+                String word = w.getWord().toLowerCase();
+                Vector<Info> wordInfos = map.get(word);
+                if (wordInfos == null) {
+                    wordInfos = new Vector<>();
+                    map.put(word, wordInfos);
+                }
+                wordInfos.addElement(w.getInfo());
+            }
+        }
+        return map;
+    }
+
+    /**
+     * Builds the concordance of 'file' in a WordCount
+     */
+    private static WordCount buildPacked(Path file) throws IOException {
+        WordCount counter = new WordCount();
+        try (FileChannel channel = FileChannel.open(file)) {
+            MappedWordScanner scanner = new MappedWordScanner(channel);
+            while (scanner.hasNextWord()) {
+                Word w = scanner.nextWord();
+                counter.add(w.getWord().toLowerCase(), w.getInfo());
+            }
+        }
+        return counter;
+    }
+
+    /**
+     * Returns the heap in use once the garbage has been collected
+     */
+    static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,219 @@
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Answers the queries of a WordCount from an index file written
+ * by WordIndexWriter. The file is memory-mapped (in chunks of at
+ * most 1 GB) and nothing is read before it is needed, so opening
+ * an index costs the same whatever the size of the concordance
+ */
+public class WordIndexReader {
+
+    private static final int CHUNK_BITS = 30;
+    private static final long CHUNK_MASK = (1L << CHUNK_BITS) - 1;
+
+    private MappedByteBuffer[] chunks;
+    private int words;
+    private int flags;
+    private long postingOffsetsAt;
+    private long termOffsetsAt;
+    private long countsAt;
+    private long termsOffset;
+    private long postingsOffset;
+    private long filesOffset;
+
+    /**
+     * Opens the index file 'file'
+     */
+    public WordIndexReader(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file)) {
+            long size = channel.size();
+            this.chunks = new MappedByteBuffer[(int) ((size + CHUNK_MASK) >>> CHUNK_BITS)];
+            for (int i = 0; i < this.chunks.length; i++) {
+                long start = (long) i << CHUNK_BITS;
+                this.chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(size - start, CHUNK_MASK + 1));
+            }
+        }
+        if (this.chunks.length == 0 || getInt(0) != WordIndexWriter.MAGIC) {
+            throw new IOException(file + " is not a word index");
+        }
+        int version = getInt(4);
+        if (version != WordIndexWriter.VERSION) {
+            throw new IOException(file + ": unsupported index version " + version);
+        }
+        this.words = getInt(8);
+        this.flags = getInt(12);
+        this.termsOffset = getLong(16);
+        this.postingsOffset = getLong(24);
+        this.filesOffset = getLong(32);
+        this.postingOffsetsAt = WordIndexWriter.HEADER_SIZE;
+        this.termOffsetsAt = this.postingOffsetsAt + 8L * (this.words + 1);
+        this.countsAt = this.termOffsetsAt + 4L * (this.words + 1);
+    }
+
+    /**
+     * Returns the number of distinct words
+     * of the index
+     */
+    public int size() {
+        return this.words;
+    }
+
+    /**
+     * Returns the number of files the index was
+     * counted from (0 if it has no files)
+     */
+    public int fileCount() {
+        return this.filesOffset == 0 ? 0 : getInt(this.filesOffset);
+    }
+
+    /**
+     * Returns the path of the file of id 'fileId',
+     * as it was given when the index was counted
+     */
+    public String fileName(int fileId) {
+        long offsetsAt = this.filesOffset + 4;
+        long namesAt = offsetsAt + 4L * (fileCount() + 1);
+        return string(namesAt, getInt(offsetsAt + 4L * fileId), getInt(offsetsAt + 4L * (fileId + 1)));
+    }
+
+    /**
+     * Returns an iterator over the informations of
+     * the given word 'word'. If 'word' has no information
+     * returns null
+     */
+    public Iterator<Info> getListIterator(String word) {
+        int i = find(word);
+        if (i < 0) {
+            return null;
+        }
+        return iterator(i);
+    }
+
+    /**
+     * Displays the indexed WordCount on System.out,
+     * exactly as WordCount.display() does
+     */
+    public void display() {
+        PrintStream out = System.out;
+        for (int i = 0; i < this.words; i++) {
+            out.printf("%14s (%d):", term(i), count(i));
+            for (Iterator<Info> infos = iterator(i); infos.hasNext(); ) {
+                out.printf(" %s", infos.next().toString());
+            }
+            out.print("\n");
+        }
+    }
+
+    /**
+     * Returns the rank of 'word' in the index,
+     * or -1 if it is not in the index
+     */
+    private int find(String word) {
+        int low = 0;
+        int high = this.words - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int cmp = term(middle).compareTo(word);
+            if (cmp < 0) {
+                low = middle + 1;
+            } else if (cmp > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the i-th word of the index
+     */
+    private String term(int i) {
+        return string(this.termsOffset, getInt(this.termOffsetsAt + 4L * i), getInt(this.termOffsetsAt + 4L * (i + 1)));
+    }
+
+    /**
+     * Returns the UTF-8 string from 'base' + 'start' (included)
+     * to 'base' + 'end' (excluded)
+     */
+    private String string(long base, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        for (int j = 0; j < bytes.length; j++) {
+            bytes[j] = getByte(base + start + j);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the number of Infos of the i-th word
+     */
+    private int count(int i) {
+        return getInt(this.countsAt + 4L * i);
+    }
+
+    /**
+     * Returns an iterator decoding the Infos of the i-th word
+     */
+    private Iterator<Info> iterator(int i) {
+        final int count = count(i);
+        final long start = this.postingsOffset + getLong(this.postingOffsetsAt + 8L * i);
+        final boolean fileIds = (this.flags & WordIndexWriter.FILE_IDS) != 0;
+        return new Iterator<Info>() {
+            private long pos = start;
+            private int read = 0;
+            private int fileId = Info.NO_FILE;
+            private int lineNum = 0;
+
+            public boolean hasNext() {
+                return this.read < count;
+            }
+
+            public Info next() {
+                if (this.read >= count) {
+                    throw new NoSuchElementException();
+                }
+                if (fileIds) {
+                    int fileDelta = readVarint();
+                    if (fileDelta != 0) {
+                        this.fileId += fileDelta;
+                        this.lineNum = 0;
+                    }
+                }
+                this.lineNum += readVarint();
+                int charPos = readVarint();
+                this.read++;
+                return new Info(charPos, this.lineNum, this.fileId);
+            }
+
+            private int readVarint() {
+                int value = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = getByte(this.pos++);
+                    value |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                return value;
+            }
+        };
+    }
+
+    private byte getByte(long pos) {
+        return this.chunks[(int) (pos >>> CHUNK_BITS)].get((int) (pos & CHUNK_MASK));
+    }
+
+    private int getInt(long pos) {
+        return this.chunks[(int) (pos >>> CHUNK_BITS)].getInt((int) (pos & CHUNK_MASK));
+    }
+
+    private long getLong(long pos) {
+        return this.chunks[(int) (pos >>> CHUNK_BITS)].getLong((int) (pos & CHUNK_MASK));
+    }
+}
@@ -0,0 +1,193 @@
+
+import java.io.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Writes a WordCount to a binary index file, which a
+ * WordIndexReader answers queries from without rescanning the text.
+ *
+ * Layout of the file (all numbers big-endian, the terms, the
+ * postings and the files start on a multiple of 8 bytes):
+ *   header     int magic, int version, int number of words (n),
+ *              int flags, long offset of the terms, long offset
+ *              of the postings, long offset of the files (0 if the
+ *              index has no files)
+ *   directory  long[n + 1] offsets of the postings of each word
+ *              (relative to the postings), int[n + 1] offsets of each
+ *              word (relative to the terms), int[n] number of Infos
+ *              of each word
+ *   terms      the words in alphabetical order, encoded in UTF-8
+ *   postings   for each word, its Infos in order, each one written as
+ *              two varints: the line number minus the line number of
+ *              the previous Info of the word, and the character position.
+ *              If the flag FILE_IDS is set, each Info starts with a third
+ *              varint, its file id minus the file id of the previous Info
+ *              (the first one minus Info.NO_FILE); the line number of the
+ *              first Info of each file is then written as is
+ *   files      int number of files (m), int[m + 1] offsets of the
+ *              name of each file (relative to the names), then the
+ *              names (the paths the files were counted from, by file
+ *              id) encoded in UTF-8
+ */
+public class WordIndexWriter {
+
+    static final int MAGIC = 0x57434958;   // "WCIX"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 40;
+    static final int FILE_IDS = 1;
+
+    /**
+     * Writes the given WordCount 'counter' to the given file
+     */
+    public static void write(WordCount counter, Path file) throws IOException {
+        write(counter, Collections.<Path>emptyList(), file);
+    }
+
+    /**
+     * Writes the given WordCount 'counter' of the files 'files' (the
+     * file id of the Infos of files.get(i) being i) to the given file
+     */
+    public static void write(WordCount counter, List<Path> files, Path file) throws IOException {
+        int words = counter.size();
+        byte[][] terms = new byte[words][];
+        long[] postingOffsets = new long[words + 1];
+        int[] termOffsets = new int[words + 1];
+        int[] counts = new int[words];
+        int flags = 0;
+        for (String word : counter.words()) {
+            if (counter.getInfoList(word).hasFileIds()) {
+                flags |= FILE_IDS;
+            }
+        }
+
+        // first pass: sizes of the terms and of the postings
+        int i = 0;
+        for (String word : counter.words()) {
+            InfoList infos = counter.getInfoList(word);
+            terms[i] = word.getBytes(StandardCharsets.UTF_8);
+            termOffsets[i + 1] = termOffsets[i] + terms[i].length;
+            postingOffsets[i + 1] = postingOffsets[i] + postingsSize(infos, flags);
+            counts[i] = infos.size();
+            i++;
+        }
+
+        long directoryEnd = HEADER_SIZE + 8L * (words + 1) + 4L * (words + 1) + 4L * words;
+        long termsOffset = align(directoryEnd);
+        long termsEnd = termsOffset + termOffsets[words];
+        long postingsOffset = align(termsEnd);
+        long postingsEnd = postingsOffset + postingOffsets[words];
+        long filesOffset = files.isEmpty() ? 0 : align(postingsEnd);
+        byte[][] names = new byte[files.size()][];
+        int[] nameOffsets = new int[files.size() + 1];
+        for (int f = 0; f < files.size(); f++) {
+            names[f] = files.get(f).toString().getBytes(StandardCharsets.UTF_8);
+            nameOffsets[f + 1] = nameOffsets[f] + names[f].length;
+        }
+
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(words);
+            out.writeInt(flags);
+            out.writeLong(termsOffset);
+            out.writeLong(postingsOffset);
+            out.writeLong(filesOffset);
+
+            for (long offset : postingOffsets) {
+                out.writeLong(offset);
+            }
+            for (int offset : termOffsets) {
+                out.writeInt(offset);
+            }
+            for (int count : counts) {
+                out.writeInt(count);
+            }
+            out.write(new byte[(int) (termsOffset - directoryEnd)]);
+
+            for (byte[] term : terms) {
+                out.write(term);
+            }
+            out.write(new byte[(int) (postingsOffset - termsEnd)]);
+
+            for (String word : counter.words()) {
+                InfoList infos = counter.getInfoList(word);
+                int lastFile = Info.NO_FILE;
+                int lastLine = 0;
+                for (int j = 0; j < infos.size(); j++) {
+                    if ((flags & FILE_IDS) != 0) {
+                        writeVarint(out, infos.getFileId(j) - lastFile);
+                        if (infos.getFileId(j) != lastFile) {
+                            lastFile = infos.getFileId(j);
+                            lastLine = 0;
+                        }
+                    }
+                    writeVarint(out, infos.getLineNum(j) - lastLine);
+                    writeVarint(out, infos.getCharPos(j));
+                    lastLine = infos.getLineNum(j);
+                }
+            }
+
+            if (!files.isEmpty()) {
+                out.write(new byte[(int) (filesOffset - postingsEnd)]);
+                out.writeInt(files.size());
+                for (int offset : nameOffsets) {
+                    out.writeInt(offset);
+                }
+                for (byte[] name : names) {
+                    out.write(name);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of bytes the postings of 'infos' take
+     * with the given flags
+     */
+    private static long postingsSize(InfoList infos, int flags) {
+        long size = 0;
+        int lastFile = Info.NO_FILE;
+        int lastLine = 0;
+        for (int j = 0; j < infos.size(); j++) {
+            if ((flags & FILE_IDS) != 0) {
+                size += varintSize(infos.getFileId(j) - lastFile);
+                if (infos.getFileId(j) != lastFile) {
+                    lastFile = infos.getFileId(j);
+                    lastLine = 0;
+                }
+            }
+            size += varintSize(infos.getLineNum(j) - lastLine);
+            size += varintSize(infos.getCharPos(j));
+            lastLine = infos.getLineNum(j);
+        }
+        return size;
+    }
+
+    /**
+     * Rounds 'offset' up to a multiple of 8, so that the
+     * longs and ints of the file never straddle a mapped chunk
+     */
+    private static long align(long offset) {
+        return (offset + 7) & ~7L;
+    }
+
+    private static int varintSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private static void writeVarint(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+}
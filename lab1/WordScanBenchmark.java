@@ -0,0 +1,126 @@
+
+import java.io.*;
+import java.nio.file.*;
+
+/**
+ * Compares the scanning speed of WordScanner and FastWordScanner.
+ *
+ * The texts given (text1.txt .. text4.txt by default) are repeated
+ * up to the requested size into a temporary file. Each scanner reads
+ * that file, then its scan alone is timed: every word goes to a sink
+ * which only sums the words, their lengths and their positions, so
+ * that both scanners can be checked to find the same words
+ *
+ * Usage: java WordScanBenchmark [megabytes [runs [file ...]]]
+ */
+public class WordScanBenchmark {
+
+    private static final String[] DEFAULT_FILES = { "text1.txt", "text2.txt", "text3.txt", "text4.txt" };
+
+    public static void main(String[] args) throws IOException {
+        int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        String[] files = DEFAULT_FILES;
+        if (args.length > 2) {
+            files = new String[args.length - 2];
+            System.arraycopy(args, 2, files, 0, files.length);
+        }
+
+        Path corpus = Files.createTempFile("wordscan", ".txt");
+        try {
+            long size = writeCorpus(files, corpus, (long) megabytes << 20);
+            System.out.printf("corpus: %d files repeated to %d bytes\n", files.length, size);
+            long best = Long.MAX_VALUE;
+            long bestFast = Long.MAX_VALUE;
+            for (int run = 0; run < runs; run++) {
+                Checksum plain = new Checksum();
+                WordSource scanner = new WordScanner(new FileReader(corpus.toFile()));
+                long time = scan(scanner, plain);
+                Checksum fast = new Checksum();
+                scanner = new FastWordScanner(new FileReader(corpus.toFile()));
+                long timeFast = scan(scanner, fast);
+                if (!plain.equals(fast)) {
+                    throw new IllegalStateException("the scanners disagree: " + plain + " / " + fast);
+                }
+                System.out.printf("run %d: WordScanner %d ms, FastWordScanner %d ms (%s)\n",
+                        run + 1, time / 1000000, timeFast / 1000000, fast);
+                best = Math.min(best, time);
+                bestFast = Math.min(bestFast, timeFast);
+            }
+            System.out.printf("best:  WordScanner %.1f MB/s, FastWordScanner %.1f MB/s (x%.2f)\n",
+                    size / 1e6 / (best / 1e9), size / 1e6 / (bestFast / 1e9), (double) best / bestFast);
+        } finally {
+            Files.delete(corpus);
+        }
+    }
+
+    /**
+     * Writes the given files to 'corpus' over and over,
+     * until it holds at least 'size' bytes, and returns its size
+     */
+    private static long writeCorpus(String[] files, Path corpus, long size) throws IOException {
+        byte[][] texts = new byte[files.length][];
+        long total = 0;
+        for (int i = 0; i < files.length; i++) {
+            texts[i] = Files.readAllBytes(Paths.get(files[i]));
+            total += texts[i].length;
+        }
+        if (total == 0) {
+            throw new IOException("the texts are empty");
+        }
+        long written = 0;
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(corpus), 1 << 16)) {
+            while (written < size) {
+                for (byte[] text : texts) {
+                    out.write(text);
+                    written += text.length;
+                }
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Returns the time (in nanoseconds) taken
+     * to feed every word of 'scanner' to 'sink'
+     */
+    private static long scan(WordSource scanner, WordSink sink) throws IOException {
+        long start = System.nanoTime();
+        while (scanner.hasNextWord()) {
+            scanner.countNextWord(sink);
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * A sink which only sums what it is given
+     */
+    private static class Checksum implements WordSink {
+        private long words;
+        private long chars;
+        private long positions;
+
+        public void add(char[] text, int start, int length, int lineNum, int charPos) {
+            this.words++;
+            this.chars += length + text[start];
+            this.positions = 31 * this.positions + ((long) lineNum << 20) + charPos;
+        }
+
+        public boolean equals(Object other) {
+            if (!(other instanceof Checksum)) {
+                return false;
+            }
+            Checksum checksum = (Checksum) other;
+            return this.words == checksum.words && this.chars == checksum.chars
+                    && this.positions == checksum.positions;
+        }
+
+        public int hashCode() {
+            return (int) (this.words ^ this.chars ^ this.positions);
+        }
+
+        public String toString() {
+            return this.words + " words";
+        }
+    }
+}
@@ -4,7 +4,7 @@ import java.io.*;
 /**
  * This class implements a word (string) scanner
  */
-public class WordScanner {
+public class WordScanner implements WordSource {
 
     private FileReader input;
     private int currentLine;
@@ -40,45 +40,60 @@ public class WordScanner {
      */
     public Word nextWord() throws IOException {
         if (hasNextWord()) {
+            skipSeparators();
+            Info info = new Info(this.posInLine, this.currentLine);
+            int start = this.currentPos;
+            skipWord();
+            Word result = new Word(new String(this.content, start, this.currentPos - start), info);
+            skipSeparators();
+            return result;
+        } else {
+            return null;
+        }
+    }
 
-            while (this.currentPos < this.content.length && !Character.isLetter(this.content[this.currentPos])) {
-                if (this.content[this.currentPos] == '\n') {
-                    this.currentLine++;
-                    this.posInLine = 1;
-				}else{
-					this.posInLine++;
-				}
-                this.currentPos++;
-            }
+    /**
+     * Adds the next word from input, lower-cased, to 'counter'
+     * with its line number and character position,
+     * without building any Word, Info or String
+     * Precond: hasNextWord() must evaluate to true
+     */
+    public void countNextWord(WordSink counter) {
+        if (hasNextWord()) {
+            skipSeparators();
+            int lineNum = this.currentLine;
+            int charPos = this.posInLine;
+            int start = this.currentPos;
+            skipWord();
+            counter.add(this.content, start, this.currentPos - start, lineNum, charPos);
+            skipSeparators();
+        }
+    }
 
-            Info info = new Info(this.posInLine, this.currentLine);
-            StringBuffer sb = new StringBuffer();
-            while (Character.isLetter(this.content[this.currentPos]) || isQuoteInWord(this.currentPos)) {
-                sb.append(this.content[this.currentPos]);
-                this.currentPos++;
+    /**
+     * Skips the chars up to the next letter
+     */
+    private void skipSeparators() {
+        while (this.currentPos < this.content.length && !Character.isLetter(this.content[this.currentPos])) {
+            if (this.content[this.currentPos] == '\n') {
+                this.currentLine++;
+                this.posInLine = 1;
+            } else {
                 this.posInLine++;
-                if (this.content[this.currentPos] == '\n') {
-                    this.currentPos++;
-                    this.posInLine = 1;
-                    this.currentLine++;
-                    break;
-                }
-            }
-            Word result = new Word(sb.toString(), info);
-
-            while (this.currentPos < this.content.length && !Character.isLetter(this.content[this.currentPos])) {
-                if (this.content[this.currentPos] == '\n') {
-                    this.currentLine++;
-                    this.posInLine = 1;
-                }else{
-					this.posInLine++;
-				}
-                this.currentPos++;
             }
+            this.currentPos++;
+        }
+    }
 
-            return result;
-        } else {
-            return null;
+    /**
+     * Skips the letters (and quotes in the word)
+     * of the word starting at the current position.
+     * The input always ends with a newline, which stops the word
+     */
+    private void skipWord() {
+        while (Character.isLetter(this.content[this.currentPos]) || isQuoteInWord(this.currentPos)) {
+            this.currentPos++;
+            this.posInLine++;
         }
     }
 
@@ -0,0 +1,14 @@
+
+/**
+ * The interface of the structures a WordSource can feed
+ * words into without building Words (see countNextWord)
+ */
+public interface WordSink {
+
+    /**
+     * Adds an occurrence of the lower-case form of the word
+     * text[start .. start + length - 1], found at the given
+     * line number 'lineNum' and character position 'charPos'
+     */
+    void add(char[] text, int start, int length, int lineNum, int charPos);
+}
@@ -0,0 +1,29 @@
+
+import java.io.*;
+
+/**
+ * The interface shared by the word scanners.
+ * A WordSource hands out the Words of an input
+ * one at a time, in document order
+ */
+public interface WordSource {
+
+    /**
+     * Returns true if there is at least
+     * one word left in the input, false otherwise
+     */
+    boolean hasNextWord() throws IOException;
+
+    /**
+     * Returns the next word from input
+     * Precond: hasNextWord() must evaluate to true
+     */
+    Word nextWord() throws IOException;
+
+    /**
+     * Adds the next word from input to 'counter', lower-cased,
+     * with its line number and character position
+     * Precond: hasNextWord() must evaluate to true
+     */
+    void countNextWord(WordSink counter) throws IOException;
+}
@@ -0,0 +1,145 @@
+
+/**
+ * A class for the WordTable data structure.
+ * A WordTable is an open-addressing hash table which pairs a
+ * (lower-case) word with its InfoList. Besides String keys, it can
+ * be probed directly with a slice of a char array, lower-casing the
+ * slice on the fly, so that finding the InfoList of a word which is
+ * already in the table allocates nothing
+ */
+public class WordTable {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    // true if String.toLowerCase() maps 'A'-'Z' to 'a'-'z' in the
+    // default locale (it does not in the Turkish locale, for instance)
+    static final boolean ASCII_FOLDS =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZ".toLowerCase().equals("abcdefghijklmnopqrstuvwxyz");
+
+    private String[] words;
+    private int[] hashes;
+    private InfoList[] infos;
+    private int size;
+
+    /**
+     * Builds an empty WordTable
+     */
+    public WordTable() {
+        this.words = new String[INITIAL_CAPACITY];
+        this.hashes = new int[INITIAL_CAPACITY];
+        this.infos = new InfoList[INITIAL_CAPACITY];
+        this.size = 0;
+    }
+
+    /**
+     * Returns the InfoList of the given word 'word',
+     * or null if the word is not in the table
+     */
+    public InfoList get(String word) {
+        int hash = 0;
+        for (int i = 0; i < word.length(); i++) {
+            hash = 31 * hash + word.charAt(i);
+        }
+        int mask = this.words.length - 1;
+        for (int slot = mix(hash) & mask; this.words[slot] != null; slot = (slot + 1) & mask) {
+            if (this.hashes[slot] == hash && this.words[slot].equals(word)) {
+                return this.infos[slot];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the InfoList of the lower-case form of the word
+     * text[start .. start + length - 1], or null if that word is not
+     * in the table. Also returns null for the words that can not be
+     * lower-cased char by char (i.e. with a char that is not ASCII);
+     * those must be looked up as Strings
+     */
+    public InfoList get(char[] text, int start, int length) {
+        if (!ASCII_FOLDS) {
+            return null;
+        }
+        int hash = 0;
+        for (int i = start; i < start + length; i++) {
+            char c = text[i];
+            if (c >= 0x80) {
+                return null;
+            }
+            hash = 31 * hash + toLower(c);
+        }
+        int mask = this.words.length - 1;
+        for (int slot = mix(hash) & mask; this.words[slot] != null; slot = (slot + 1) & mask) {
+            if (this.hashes[slot] == hash && matches(this.words[slot], text, start, length)) {
+                return this.infos[slot];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Pairs the given word 'word', which must not
+     * be in the table yet, with the given InfoList
+     */
+    public void put(String word, InfoList wordInfos) {
+        if (2 * (this.size + 1) > this.words.length) {
+            grow();
+        }
+        int hash = 0;
+        for (int i = 0; i < word.length(); i++) {
+            hash = 31 * hash + word.charAt(i);
+        }
+        insert(word, hash, wordInfos);
+        this.size++;
+    }
+
+    private void insert(String word, int hash, InfoList wordInfos) {
+        int mask = this.words.length - 1;
+        int slot = mix(hash) & mask;
+        while (this.words[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+        this.words[slot] = word;
+        this.hashes[slot] = hash;
+        this.infos[slot] = wordInfos;
+    }
+
+    private void grow() {
+        String[] oldWords = this.words;
+        int[] oldHashes = this.hashes;
+        InfoList[] oldInfos = this.infos;
+        this.words = new String[oldWords.length * 2];
+        this.hashes = new int[oldWords.length * 2];
+        this.infos = new InfoList[oldWords.length * 2];
+        for (int i = 0; i < oldWords.length; i++) {
+            if (oldWords[i] != null) {
+                insert(oldWords[i], oldHashes[i], oldInfos[i]);
+            }
+        }
+    }
+
+    private static boolean matches(String word, char[] text, int start, int length) {
+        if (word.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (word.charAt(i) != toLower(text[start + i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static char toLower(char c) {
+        return (c >= 'A' && c <= 'Z') ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    /**
+     * Spreads the bits of a String hash code
+     * over the low bits used to pick a slot
+     */
+    private static int mix(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,349 @@
+
+import java.util.*;
+
+/**
+ * A class for the WordTrie data structure.
+ * A WordTrie is a read-only dictionary of words, built once from
+ * the words of a WordCount, which answers exact lookups, prefix
+ * queries ("all the words starting with comp") and range queries
+ * ("all the words from 'b' up to 'c'").
+ *
+ * It is a radix trie (the chains of nodes with a single child are
+ * merged into one edge labelled with several chars) kept in a few
+ * flat arrays instead of node objects. The children of a node are
+ * consecutive nodes, sorted by the first char of their label, and
+ * the nodes are ranked so that the words below a node are exactly
+ * the words of ranks firstRank[node] .. rankEnd[node] - 1 in
+ * alphabetical order: a query only has to find the bounds of its
+ * ranks, and its words are then streamed by walking the trie
+ */
+public class WordTrie {
+
+    private int words;
+    private InfoList[] values;
+
+    private int nodes;
+    // label of node n: labels[labelStart[n] .. labelStart[n + 1] - 1]
+    private char[] labels;
+    private int[] labelStart;
+    private int[] firstChild;
+    private int[] childCount;
+    private int[] firstRank;
+    private int[] rankEnd;
+
+    /**
+     * Builds the WordTrie of the given words, which must be sorted
+     * and distinct; words[i] is paired with the InfoList infos[i]
+     */
+    public WordTrie(String[] words, InfoList[] infos) {
+        this.words = words.length;
+        this.values = infos.clone();
+        int chars = 0;
+        for (String word : words) {
+            chars += word.length();
+        }
+        // a radix trie has at most 2 nodes per word (plus the root)
+        // and fewer label chars than its words
+        int maxNodes = 2 * words.length + 1;
+        this.labels = new char[chars];
+        this.labelStart = new int[maxNodes + 1];
+        this.firstChild = new int[maxNodes];
+        this.childCount = new int[maxNodes];
+        this.firstRank = new int[maxNodes];
+        this.rankEnd = new int[maxNodes];
+
+        this.nodes = 1;
+        this.rankEnd[0] = words.length;
+        buildChildren(words, 0, 0);
+
+        this.labels = Arrays.copyOf(this.labels, this.labelStart[this.nodes]);
+        this.labelStart = Arrays.copyOf(this.labelStart, this.nodes + 1);
+        this.firstChild = Arrays.copyOf(this.firstChild, this.nodes);
+        this.childCount = Arrays.copyOf(this.childCount, this.nodes);
+        this.firstRank = Arrays.copyOf(this.firstRank, this.nodes);
+        this.rankEnd = Arrays.copyOf(this.rankEnd, this.nodes);
+    }
+
+    /**
+     * Adds the children of 'node', whose words all start with the
+     * same 'depth' chars, then the children of these children
+     */
+    private void buildChildren(String[] words, int node, int depth) {
+        int lo = this.firstRank[node];
+        int hi = this.rankEnd[node];
+        if (lo < hi && words[lo].length() == depth) {
+            // the word of the node itself comes first
+            lo++;
+        }
+        int first = this.nodes;
+        while (lo < hi) {
+            char c = words[lo].charAt(depth);
+            int end = lo + 1;
+            while (end < hi && words[end].charAt(depth) == c) {
+                end++;
+            }
+            int labelEnd = commonPrefix(words[lo], words[end - 1]);
+            int child = this.nodes++;
+            int at = this.labelStart[child];
+            words[lo].getChars(depth, labelEnd, this.labels, at);
+            this.labelStart[child + 1] = at + labelEnd - depth;
+            this.firstRank[child] = lo;
+            this.rankEnd[child] = end;
+            lo = end;
+        }
+        this.firstChild[node] = first;
+        this.childCount[node] = this.nodes - first;
+        for (int child = first; child < first + this.childCount[node]; child++) {
+            buildChildren(words, child, depth + labelLength(child));
+        }
+    }
+
+    /**
+     * Returns the number of words of the WordTrie
+     */
+    public int size() {
+        return this.words;
+    }
+
+    /**
+     * Returns the InfoList of the given word 'word',
+     * or null if the word is not in the WordTrie
+     */
+    public InfoList get(String word) {
+        int node = 0;
+        int pos = 0;
+        while (pos < word.length()) {
+            int child = findChild(node, word.charAt(pos));
+            if (child < 0) {
+                return null;
+            }
+            int start = this.labelStart[child];
+            int length = labelLength(child);
+            if (length > word.length() - pos) {
+                return null;
+            }
+            for (int i = 0; i < length; i++) {
+                if (this.labels[start + i] != word.charAt(pos + i)) {
+                    return null;
+                }
+            }
+            pos += length;
+            node = child;
+        }
+        return isWord(node) ? this.values[this.firstRank[node]] : null;
+    }
+
+    /**
+     * Returns an iterator over the words starting with
+     * 'prefix', in alphabetical order
+     */
+    public Iterator<String> withPrefix(String prefix) {
+        int node = 0;
+        int pos = 0;
+        while (pos < prefix.length()) {
+            int child = findChild(node, prefix.charAt(pos));
+            if (child < 0) {
+                return new RankIterator(0, 0);
+            }
+            int start = this.labelStart[child];
+            int length = Math.min(labelLength(child), prefix.length() - pos);
+            for (int i = 0; i < length; i++) {
+                if (this.labels[start + i] != prefix.charAt(pos + i)) {
+                    return new RankIterator(0, 0);
+                }
+            }
+            pos += labelLength(child);
+            node = child;
+        }
+        return new RankIterator(this.firstRank[node], this.rankEnd[node]);
+    }
+
+    /**
+     * Returns an iterator over the words from 'from' (included)
+     * to 'to' (excluded), in alphabetical order
+     */
+    public Iterator<String> inRange(String from, String to) {
+        return new RankIterator(rankOf(from), rankOf(to));
+    }
+
+    /**
+     * Returns the number of words of the WordTrie
+     * which come before 'key' in alphabetical order
+     */
+    private int rankOf(String key) {
+        int node = 0;
+        int pos = 0;
+        while (pos < key.length()) {
+            char c = key.charAt(pos);
+            // the word of the node (a prefix of 'key') and the children
+            // starting with a smaller char come before 'key'
+            int child = findChildFrom(node, c);
+            if (child == this.firstChild[node] + this.childCount[node]) {
+                return this.rankEnd[node];
+            }
+            int start = this.labelStart[child];
+            int length = labelLength(child);
+            for (int i = 0; i < length; i++) {
+                if (pos + i == key.length()) {
+                    return this.firstRank[child];
+                }
+                char label = this.labels[start + i];
+                if (label != key.charAt(pos + i)) {
+                    return label < key.charAt(pos + i) ? this.rankEnd[child] : this.firstRank[child];
+                }
+            }
+            pos += length;
+            node = child;
+        }
+        return this.firstRank[node];
+    }
+
+    /**
+     * Returns the child of 'node' whose label starts
+     * with 'c', or -1 if there is none
+     */
+    private int findChild(int node, char c) {
+        int child = findChildFrom(node, c);
+        if (child < this.firstChild[node] + this.childCount[node] && this.labels[this.labelStart[child]] == c) {
+            return child;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the first child of 'node' whose label starts with
+     * 'c' or a greater char (or the node after its last child)
+     */
+    private int findChildFrom(int node, char c) {
+        int low = this.firstChild[node];
+        int high = low + this.childCount[node];
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (this.labels[this.labelStart[middle]] < c) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns true if the chars from the root to 'node' make a word
+     */
+    private boolean isWord(int node) {
+        int wordsBelow = this.childCount[node] == 0 ? this.rankEnd[node] : this.firstRank[this.firstChild[node]];
+        return this.firstRank[node] < wordsBelow;
+    }
+
+    private int labelLength(int node) {
+        return this.labelStart[node + 1] - this.labelStart[node];
+    }
+
+    private static int commonPrefix(String word1, String word2) {
+        int length = Math.min(word1.length(), word2.length());
+        int i = 0;
+        while (i < length && word1.charAt(i) == word2.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * An iterator over the words of ranks 'from' .. 'to' - 1, which
+     * walks the trie depth first from the node of the word 'from'
+     */
+    private class RankIterator implements Iterator<String> {
+        private int rank;
+        private int to;
+        // the nodes from the root to the current word, and their chars
+        private int[] path;
+        private int depth;
+        private StringBuilder word;
+
+        RankIterator(int from, int to) {
+            this.rank = from;
+            this.to = to;
+            this.path = new int[16];
+            this.word = new StringBuilder();
+            if (from < to) {
+                // goes down to the node of the word 'from'
+                int node = 0;
+                while (!(isWord(node) && firstRank[node] == from)) {
+                    int low = firstChild[node];
+                    int high = low + childCount[node] - 1;
+                    while (low < high) {
+                        int middle = (low + high + 1) >>> 1;
+                        if (firstRank[middle] <= from) {
+                            low = middle;
+                        } else {
+                            high = middle - 1;
+                        }
+                    }
+                    node = low;
+                    push(node);
+                }
+            }
+        }
+
+        public boolean hasNext() {
+            return this.rank < this.to;
+        }
+
+        public String next() {
+            if (this.rank >= this.to) {
+                throw new NoSuchElementException();
+            }
+            String result = this.word.toString();
+            this.rank++;
+            if (this.rank < this.to) {
+                advance();
+            }
+            return result;
+        }
+
+        /**
+         * Moves to the node of the next word, depth first
+         */
+        private void advance() {
+            int node = this.depth == 0 ? 0 : this.path[this.depth - 1];
+            if (childCount[node] > 0) {
+                node = firstChild[node];
+                push(node);
+            } else {
+                // goes up to the first node with a next sibling
+                while (true) {
+                    pop();
+                    int parent = this.depth == 0 ? 0 : this.path[this.depth - 1];
+                    if (node + 1 < firstChild[parent] + childCount[parent]) {
+                        node = node + 1;
+                        push(node);
+                        break;
+                    }
+                    node = parent;
+                }
+            }
+            while (!isWord(node)) {
+                node = firstChild[node];
+                push(node);
+            }
+        }
+
+        private void push(int node) {
+            if (this.depth == this.path.length) {
+                this.path = Arrays.copyOf(this.path, 2 * this.depth);
+            }
+            this.path[this.depth++] = node;
+            this.word.append(labels, labelStart[node], labelLength(node));
+        }
+
+        private void pop() {
+            int node = this.path[--this.depth];
+            this.word.setLength(this.word.length() - labelLength(node));
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+
+import java.io.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Compares a WordTrie with a TreeMap as the dictionary of a
+ * WordCount: the heap each one takes (the InfoLists, shared by both,
+ * are not counted) and the time of an exact lookup of every word.
+ *
+ * The words are those of the given files, or 'n' random words
+ * (built to share prefixes, as the words of a text do)
+ *
+ * Usage: java WordTrieBenchmark file ...
+ *        java WordTrieBenchmark -random n
+ */
+public class WordTrieBenchmark {
+
+    private static final int ROUNDS = 10;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("usage: java WordTrieBenchmark file ... | -random n");
+            System.exit(-1);
+        }
+        String[] words;
+        if (args[0].equals("-random")) {
+            words = randomWords(Integer.parseInt(args[1]), new Random(42));
+        } else {
+            WordCount counter = new WordCount();
+            for (String file : args) {
+                try (FileChannel channel = FileChannel.open(Paths.get(file))) {
+                    MappedWordScanner scanner = new MappedWordScanner(channel);
+                    while (scanner.hasNextWord()) {
+                        scanner.countNextWord(counter);
+                    }
+                }
+            }
+            words = counter.words().toArray(new String[counter.size()]);
+        }
+        InfoList[] infos = new InfoList[words.length];
+        for (int i = 0; i < infos.length; i++) {
+            infos[i] = new InfoList();
+        }
+        // the lookups are made with copies of the words, as a query would
+        String[] keys = new String[words.length];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = new String(words[i].toCharArray());
+        }
+        Collections.shuffle(Arrays.asList(keys), new Random(7));
+
+        long base = WordCountMemory.usedHeap();
+        TreeMap<String, InfoList> map = new TreeMap<String, InfoList>();
+        for (int i = 0; i < words.length; i++) {
+            map.put(new String(words[i].toCharArray()), infos[i]);
+        }
+        long mapBytes = WordCountMemory.usedHeap() - base;
+
+        base = WordCountMemory.usedHeap();
+        WordTrie trie = new WordTrie(words, infos);
+        long trieBytes = WordCountMemory.usedHeap() - base;
+
+        long mapTime = Long.MAX_VALUE;
+        long trieTime = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            int found = 0;
+            for (String key : keys) {
+                if (map.get(key) != null) {
+                    found++;
+                }
+            }
+            mapTime = Math.min(mapTime, System.nanoTime() - start);
+            start = System.nanoTime();
+            for (String key : keys) {
+                if (trie.get(key) != null) {
+                    found--;
+                }
+            }
+            trieTime = Math.min(trieTime, System.nanoTime() - start);
+            if (found != 0) {
+                throw new IllegalStateException("the dictionaries disagree");
+            }
+        }
+
+        System.out.printf("%d words%n", words.length);
+        System.out.printf("%-20s %12d bytes (%5.1f bytes/word), lookup %6.1f ns%n", "TreeMap<String, ..>",
+                mapBytes, (double) mapBytes / Math.max(words.length, 1), (double) mapTime / Math.max(keys.length, 1));
+        System.out.printf("%-20s %12d bytes (%5.1f bytes/word), lookup %6.1f ns%n", "WordTrie",
+                trieBytes, (double) trieBytes / Math.max(words.length, 1), (double) trieTime / Math.max(keys.length, 1));
+        // keeps both alive until they are measured
+        if (map.size() != trie.size()) {
+            throw new IllegalStateException("the dictionaries disagree");
+        }
+    }
+
+    /**
+     * Returns 'n' distinct random words, sorted; most of them
+     * extend (a prefix of) a word drawn before them
+     */
+    private static String[] randomWords(int n, Random random) {
+        TreeSet<String> words = new TreeSet<String>();
+        List<String> drawn = new ArrayList<String>();
+        while (words.size() < n) {
+            StringBuilder sb = new StringBuilder();
+            if (!drawn.isEmpty() && random.nextInt(4) != 0) {
+                String stem = drawn.get(random.nextInt(drawn.size()));
+                sb.append(stem, 0, 1 + random.nextInt(stem.length()));
+            }
+            for (int i = 1 + random.nextInt(6); i > 0; i--) {
+                sb.append((char) ('a' + random.nextInt(26)));
+            }
+            if (words.add(sb.toString())) {
+                drawn.add(sb.toString());
+            }
+        }
+        return words.toArray(new String[n]);
+    }
+}
@@ -4,9 +4,21 @@ import java_cup.runtime.*;  // defines the class Symbol
 
 /**
  * This program is to be used to test the Scanner.
+ *
+ * Usage: java Main                          (asks for the files to scan)
+ *        java Main -dump infile dumpfile    (binary dump, see TokenDump)
+ *        java Main -render dumpfile outfile (the .out text of a dump)
  */
 public class Main {
     public static void main(String[] args) throws IOException {
+        if (args.length == 3 && args[0].equals("-dump")) {
+            dumpAllTokens(args[1], args[2]);
+            return;
+        }
+        if (args.length == 3 && args[0].equals("-render")) {
+            renderDump(args[1], args[2]);
+            return;
+        }
 
         java.util.Scanner console = new java.util.Scanner(System.in);
         String stop = "stop";
@@ -14,7 +26,6 @@ public class Main {
         while ( ! filename.equals(stop) ) {
             testAllTokens(filename,filename + ".out");
             System.out.println("result of scanner are in " + filename + ".out");
-            // CharNum.num = 1;
             filename = readFileName(console,stop);
         }
     }
@@ -29,7 +40,7 @@ public class Main {
         PrintWriter outFile = null;
         try {
             inFile = new FileReader(infile);
-            outFile = new PrintWriter(new FileWriter(outfile));
+            outFile = new PrintWriter(new BufferedWriter(new FileWriter(outfile)));
         } catch (FileNotFoundException ex) {
             System.err.println("File " + infile + " not found.");
             System.exit(-1);
@@ -42,136 +53,39 @@ public class Main {
         Yylex scanner = new Yylex(inFile);
         Symbol token = scanner.next_token();
         while (token.sym != sym.EOF) {
-            switch (token.sym) {
-            case sym.BOOL:
-                outFile.println("bool"); 
-                break;
-			case sym.INT:
-                outFile.println("int");
-                break;
-            case sym.VOID:
-                outFile.println("void");
-                break;
-            case sym.TRUE:
-                outFile.println("true"); 
-                break;
-            case sym.FALSE:
-                outFile.println("false"); 
-                break;
-            case sym.STRUCT:
-                outFile.println("struct"); 
-                break;
-            case sym.CIN:
-                outFile.println("cin"); 
-                break;
-            case sym.COUT:
-                outFile.println("cout");
-                break;				
-            case sym.IF:
-                outFile.println("if");
-                break;
-            case sym.ELSE:
-                outFile.println("else");
-                break;
-            case sym.WHILE:
-                outFile.println("while");
-                break;
-            case sym.RETURN:
-                outFile.println("return");
-                break;
-            case sym.ID:
-                outFile.println(((IdTokenVal)token.value).idVal);
-                break;
-            case sym.INTLITERAL:  
-                outFile.println(((IntLitTokenVal)token.value).intVal);
-                break;
-            case sym.STRINGLITERAL: 
-                outFile.println(((StrLitTokenVal)token.value).strVal);
-                break;    
-            case sym.LCURLY:
-                outFile.println("{");
-                break;
-            case sym.RCURLY:
-                outFile.println("}");
-                break;
-            case sym.LPAREN:
-                outFile.println("(");
-                break;
-            case sym.RPAREN:
-                outFile.println(")");
-                break;
-            case sym.SEMICOLON:
-                outFile.println(";");
-                break;
-            case sym.COMMA:
-                outFile.println(",");
-                break;
-            case sym.DOT:
-                outFile.println(".");
-                break;
-            case sym.WRITE:
-                outFile.println("<<");
-                break;
-            case sym.READ:
-                outFile.println(">>");
-                break;				
-            case sym.PLUSPLUS:
-                outFile.println("++");
-                break;
-            case sym.MINUSMINUS:
-                outFile.println("--");
-                break;	
-            case sym.PLUS:
-                outFile.println("+");
-                break;
-            case sym.MINUS:
-                outFile.println("-");
-                break;
-            case sym.TIMES:
-                outFile.println("*");
-                break;
-            case sym.DIVIDE:
-                outFile.println("/");
-                break;
-            case sym.NOT:
-                outFile.println("!");
-                break;
-            case sym.AND:
-                outFile.println("&&");
-                break;
-            case sym.OR:
-                outFile.println("||");
-                break;
-            case sym.EQUALS:
-                outFile.println("==");
-                break;
-            case sym.NOTEQUALS:
-                outFile.println("!=");
-                break;
-            case sym.LESS:
-                outFile.println("<");
-                break;
-            case sym.GREATER:
-                outFile.println(">");
-                break;
-            case sym.LESSEQ:
-                outFile.println("<=");
-                break;
-            case sym.GREATEREQ:
-                outFile.println(">=");
-                break;
-            case sym.ASSIGN:
-                outFile.println("=");
-                break;
-            default:
-                outFile.println("UNKNOWN TOKEN");
-            } // end switch
-
+            outFile.println(TokenDump.text(token));
             token = scanner.next_token();
         } // end while
         outFile.close();
     }
 
+    /**
+     * Open and read from file 'infile'.
+     * Write a binary dump of all the tokens read to 'dumpfile'
+     */
+    private static void dumpAllTokens(String infile, String dumpfile) throws IOException {
+        try (FileReader inFile = new FileReader(infile);
+             TokenDump.DumpWriter dump = new TokenDump.DumpWriter(
+                 new BufferedOutputStream(new FileOutputStream(dumpfile), 1 << 16))) {
+            Yylex scanner = new Yylex(inFile);
+            for (Symbol token = scanner.next_token(); token.sym != sym.EOF; token = scanner.next_token()) {
+                dump.write(token);
+            }
+        }
+    }
+
+    /**
+     * Write the text of each token of the dump 'dumpfile' to 'outfile',
+     * as testAllTokens does
+     */
+    private static void renderDump(String dumpfile, String outfile) throws IOException {
+        try (TokenDump.DumpReader dump = new TokenDump.DumpReader(
+                 new BufferedInputStream(new FileInputStream(dumpfile), 1 << 16));
+             Writer out = new BufferedWriter(new FileWriter(outfile), 1 << 16)) {
+            TokenDump.render(dump, out);
+        }
+    }
+
     /**
      * To read a valid input file name or the keyword 'stop' from the user
      */
@@ -0,0 +1,359 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java_cup.runtime.*;  // defines the class Symbol
+
+/**
+ * This class defines a compact binary format for the tokens returned by
+ * the scanner, with a DumpWriter to make a dump, a DumpReader to read it
+ * back, and the text of each token as written in the .out files.
+ *
+ * A dump starts with the int MAGIC and the int VERSION, followed by
+ * blocks of at most BLOCK_TOKENS tokens, and ends with an empty block.
+ * Each block holds:
+ *   - the number of tokens, the number of bytes of the tokens and the
+ *     number of bytes of the values (3 ints, big-endian)
+ *   - for each token, its kind (a byte), then its line (minus the line of
+ *     the token before it in the block), its column and, for an ID, an
+ *     INTLITERAL or a STRINGLITERAL, its value, each as a varint (7 bits
+ *     a byte, the low bits first, and the high bit set in all the bytes
+ *     but the last); the value of an INTLITERAL is the int itself, and
+ *     the value of an ID or a STRINGLITERAL is the offset of its text in
+ *     the values of the block
+ *   - the values: the text of each distinct ID and STRINGLITERAL of the
+ *     block, as its number of bytes (a varint) followed by the bytes
+ *     (UTF-8)
+ * A token thus takes 3 or 4 bytes most of the time, and a block can be
+ * read with no parsing of text.
+ */
+class TokenDump {
+    static final int MAGIC = 0x434d4d54;    // "CMMT"
+    static final int VERSION = 1;
+    static final int BLOCK_TOKENS = 4096;
+
+    // the text of each kind of token which has no value, by kind
+    private static final String[] TEXT = new String[64];
+    static {
+        TEXT[sym.BOOL] = "bool";
+        TEXT[sym.INT] = "int";
+        TEXT[sym.VOID] = "void";
+        TEXT[sym.TRUE] = "true";
+        TEXT[sym.FALSE] = "false";
+        TEXT[sym.STRUCT] = "struct";
+        TEXT[sym.CIN] = "cin";
+        TEXT[sym.COUT] = "cout";
+        TEXT[sym.IF] = "if";
+        TEXT[sym.ELSE] = "else";
+        TEXT[sym.WHILE] = "while";
+        TEXT[sym.RETURN] = "return";
+        TEXT[sym.LCURLY] = "{";
+        TEXT[sym.RCURLY] = "}";
+        TEXT[sym.LPAREN] = "(";
+        TEXT[sym.RPAREN] = ")";
+        TEXT[sym.SEMICOLON] = ";";
+        TEXT[sym.COMMA] = ",";
+        TEXT[sym.DOT] = ".";
+        TEXT[sym.WRITE] = "<<";
+        TEXT[sym.READ] = ">>";
+        TEXT[sym.PLUSPLUS] = "++";
+        TEXT[sym.MINUSMINUS] = "--";
+        TEXT[sym.PLUS] = "+";
+        TEXT[sym.MINUS] = "-";
+        TEXT[sym.TIMES] = "*";
+        TEXT[sym.DIVIDE] = "/";
+        TEXT[sym.NOT] = "!";
+        TEXT[sym.AND] = "&&";
+        TEXT[sym.OR] = "||";
+        TEXT[sym.EQUALS] = "==";
+        TEXT[sym.NOTEQUALS] = "!=";
+        TEXT[sym.LESS] = "<";
+        TEXT[sym.GREATER] = ">";
+        TEXT[sym.LESSEQ] = "<=";
+        TEXT[sym.GREATEREQ] = ">=";
+        TEXT[sym.ASSIGN] = "=";
+    }
+
+    /**
+     * Returns the text of a token of kind 'kind' which has no value,
+     * as written in the .out files.
+     */
+    static String text(int kind) {
+        String text = kind >= 0 && kind < TEXT.length ? TEXT[kind] : null;
+        return text != null ? text : "UNKNOWN TOKEN";
+    }
+
+    /**
+     * Returns the text of 'token', as written in the .out files.
+     */
+    static String text(Symbol token) {
+        switch (token.sym) {
+        case sym.ID:
+            return ((IdTokenVal)token.value).idVal;
+        case sym.INTLITERAL:
+            return Integer.toString(((IntLitTokenVal)token.value).intVal);
+        case sym.STRINGLITERAL:
+            return ((StrLitTokenVal)token.value).strVal;
+        default:
+            return text(token.sym);
+        }
+    }
+
+    /**
+     * Writes the text of each token of 'in' on a line of 'out'
+     * (the same text as the .out files).
+     */
+    static void render(DumpReader in, Writer out) throws IOException {
+        while (in.next()) {
+            switch (in.kind()) {
+            case sym.ID:
+            case sym.STRINGLITERAL:
+                out.write(in.stringValue());
+                break;
+            case sym.INTLITERAL:
+                out.write(Integer.toString(in.intValue()));
+                break;
+            default:
+                out.write(text(in.kind()));
+            }
+            out.write('\n');
+        }
+    }
+
+    /**
+     * Returns true if the tokens of kind 'kind' have a value.
+     */
+    private static boolean hasValue(int kind) {
+        return kind == sym.ID || kind == sym.INTLITERAL || kind == sym.STRINGLITERAL;
+    }
+
+    /**
+     * A DumpWriter writes a dump of the tokens given to it, a block
+     * at a time.
+     */
+    static class DumpWriter implements Closeable {
+        private final DataOutputStream out;
+        private final byte[] tokens = new byte[16 * BLOCK_TOKENS];     // at most 16 bytes a token
+        private byte[] values = new byte[1024];
+        private final Map<String, Integer> offsets = new HashMap<String, Integer>();
+        private int count = 0;          // the number of tokens of the block
+        private int tokensLength = 0;
+        private int valuesLength = 0;
+        private int line = 0;           // the line of the last token
+
+        DumpWriter(OutputStream out) throws IOException {
+            this.out = new DataOutputStream(out);
+            this.out.writeInt(MAGIC);
+            this.out.writeInt(VERSION);
+        }
+
+        /**
+         * Adds 'token' (returned by the scanner) to the dump.
+         */
+        void write(Symbol token) throws IOException {
+            TokenVal val = (TokenVal)token.value;
+            tokens[tokensLength++] = (byte)token.sym;
+            tokensLength = putVarint(tokens, tokensLength, val.getLineNum() - line);
+            tokensLength = putVarint(tokens, tokensLength, val.getCharPos());
+            line = val.getLineNum();
+            switch (token.sym) {
+            case sym.ID:
+                tokensLength = putVarint(tokens, tokensLength, offset(((IdTokenVal)val).idVal));
+                break;
+            case sym.INTLITERAL:
+                tokensLength = putVarint(tokens, tokensLength, ((IntLitTokenVal)val).intVal);
+                break;
+            case sym.STRINGLITERAL:
+                tokensLength = putVarint(tokens, tokensLength, offset(((StrLitTokenVal)val).strVal));
+                break;
+            }
+            if (++count == BLOCK_TOKENS) {
+                flushBlock();
+            }
+        }
+
+        /**
+         * Writes the last block and the end of the dump, and closes
+         * the stream.
+         */
+        public void close() throws IOException {
+            if (count > 0) {
+                flushBlock();
+            }
+            flushBlock();   // the empty block
+            out.close();
+        }
+
+        /**
+         * Returns the offset of 'text' in the values of the block,
+         * adding it to them if it is not there yet.
+         */
+        private int offset(String text) {
+            Integer offset = offsets.get(text);
+            if (offset == null) {
+                offset = valuesLength;
+                byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+                if (valuesLength + 5 + bytes.length > values.length) {
+                    values = Arrays.copyOf(values, Math.max(2 * values.length, valuesLength + 5 + bytes.length));
+                }
+                valuesLength = putVarint(values, valuesLength, bytes.length);
+                System.arraycopy(bytes, 0, values, valuesLength, bytes.length);
+                valuesLength += bytes.length;
+                offsets.put(text, offset);
+            }
+            return offset;
+        }
+
+        private void flushBlock() throws IOException {
+            out.writeInt(count);
+            out.writeInt(tokensLength);
+            out.writeInt(valuesLength);
+            out.write(tokens, 0, tokensLength);
+            out.write(values, 0, valuesLength);
+            offsets.clear();
+            count = 0;
+            tokensLength = 0;
+            valuesLength = 0;
+            line = 0;
+        }
+
+        /**
+         * Puts 'value' as a varint in 'bytes' at index 'at', and returns
+         * the index after it.
+         */
+        private static int putVarint(byte[] bytes, int at, int value) {
+            while ((value & ~0x7f) != 0) {
+                bytes[at++] = (byte)(value | 0x80);
+                value >>>= 7;
+            }
+            bytes[at++] = (byte)value;
+            return at;
+        }
+    }
+
+    /**
+     * A DumpReader reads a dump back: next() moves to the next token,
+     * whose fields are then read in place.
+     */
+    static class DumpReader implements Closeable {
+        private final DataInputStream in;
+        private byte[] tokens = new byte[0];
+        private byte[] values = new byte[0];
+        private int count = 0;      // the number of tokens left in the block
+        private int at = 0;         // the index of the next token in 'tokens'
+        private boolean done = false;
+        private int kind;
+        private int line;
+        private int column;
+        private int value;
+
+        DumpReader(InputStream in) throws IOException {
+            this.in = new DataInputStream(in);
+            if (this.in.readInt() != MAGIC) {
+                throw new IOException("not a token dump");
+            }
+            int version = this.in.readInt();
+            if (version != VERSION) {
+                throw new IOException("token dump of version " + version + " (" + VERSION + " expected)");
+            }
+        }
+
+        /**
+         * Moves to the next token and returns true,
+         * or returns false if there is none left.
+         */
+        boolean next() throws IOException {
+            if (count == 0) {
+                if (done || !readBlock()) {
+                    return false;
+                }
+            }
+            count--;
+            kind = tokens[at++];
+            line += varint();
+            column = varint();
+            value = hasValue(kind) ? varint() : 0;
+            return true;
+        }
+
+        int kind() {
+            return kind;
+        }
+
+        int line() {
+            return line;
+        }
+
+        int column() {
+            return column;
+        }
+
+        /**
+         * Returns the value of the current token, an INTLITERAL.
+         */
+        int intValue() {
+            return value;
+        }
+
+        /**
+         * Returns the text of the current token, an ID or a STRINGLITERAL.
+         */
+        String stringValue() {
+            int length = 0;
+            int i = value;
+            for (int shift = 0; ; shift += 7) {
+                byte b = values[i++];
+                length |= (b & 0x7f) << shift;
+                if (b >= 0) {
+                    break;
+                }
+            }
+            return new String(values, i, length, StandardCharsets.UTF_8);
+        }
+
+        public void close() throws IOException {
+            in.close();
+        }
+
+        /**
+         * Reads the varint at index 'at' of 'tokens', and moves after it.
+         */
+        private int varint() {
+            int result = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = tokens[at++];
+                result |= (b & 0x7f) << shift;
+                if (b >= 0) {
+                    return result;
+                }
+            }
+        }
+
+        /**
+         * Reads the next block and returns true,
+         * or returns false at the end of the dump.
+         */
+        private boolean readBlock() throws IOException {
+            count = in.readInt();
+            int tokensLength = in.readInt();
+            int valuesLength = in.readInt();
+            if (count == 0) {
+                done = true;
+                return false;
+            }
+            if (count < 0 || count > BLOCK_TOKENS || tokensLength < 0 || valuesLength < 0) {
+                throw new IOException("bad token dump block");
+            }
+            if (tokensLength > tokens.length) {
+                tokens = new byte[tokensLength];
+            }
+            in.readFully(tokens, 0, tokensLength);
+            if (valuesLength > values.length) {
+                values = new byte[valuesLength];
+            }
+            in.readFully(values, 0, valuesLength);
+            at = 0;
+            line = 0;
+            return true;
+        }
+    }
+}
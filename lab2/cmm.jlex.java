@@ -15,6 +15,12 @@ class TokenVal {
             this.lineNum = lineNum;
             this.charPos = charPos;
       }
+      int getLineNum(){
+            return lineNum;
+      }
+      int getCharPos(){
+            return charPos;
+      }
 }
 class IntLitTokenVal extends TokenVal {
       public int intVal;
@@ -37,18 +43,6 @@ class StrLitTokenVal extends TokenVal {
             this.strVal = strVal;
       }
 }
-// The following class is used to keep track of the character number at which
-// the current token starts on its line.
-class CharNum {
-      static int lineNum = 1;
-      static int colNum = 1;
-      static int line = 1;
-      static int col = 1;
-      static void setPos() {
-            lineNum = line;
-            colNum = col;
-      }
-}
 
 
 class Yylex implements java_cup.runtime.Scanner {
@@ -61,6 +55,19 @@ class Yylex implements java_cup.runtime.Scanner {
 	private final int YY_NO_ANCHOR = 4;
 	private final int YY_BOL = 128;
 	private final int YY_EOF = 129;
+
+// The following fields are used to keep track of the line and character
+// number at which the current token starts. Each scanner keeps its own,
+// so that several files can be scanned one after the other, or at the
+// same time.
+private int lineNum = 1;
+private int colNum = 1;
+private int line = 1;
+private int col = 1;
+private void setPos() {
+      lineNum = line;
+      colNum = col;
+}
 	private java.io.BufferedReader yy_reader;
 	private int yy_buffer_index;
 	private int yy_buffer_read;
@@ -480,89 +487,89 @@ return new Symbol(sym.EOF);
 						break;
 					case 2:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.PLUS, new TokenVal(CharNum.lineNum, CharNum.colNum));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.PLUS, new TokenVal(lineNum, colNum));
 }
 					case -3:
 						break;
 					case 3:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.DIVIDE, new TokenVal(CharNum.lineNum, CharNum.colNum));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.DIVIDE, new TokenVal(lineNum, colNum));
 }
 					case -4:
 						break;
 					case 4:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.ASSIGN, new TokenVal(CharNum.lineNum, CharNum.colNum)); 
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.ASSIGN, new TokenVal(lineNum, colNum)); 
 }
 					case -5:
 						break;
 					case 5:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.GREATER, new TokenVal(CharNum.lineNum, CharNum.colNum));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.GREATER, new TokenVal(lineNum, colNum));
 }
 					case -6:
 						break;
 					case 6:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.LPAREN, new TokenVal(CharNum.lineNum, CharNum.colNum));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.LPAREN, new TokenVal(lineNum, colNum));
 }
 					case -7:
 						break;
 					case 7:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.ID, new IdTokenVal(CharNum.lineNum, CharNum.colNum, yytext()));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.ID, new IdTokenVal(lineNum, colNum, yytext()));
 }
 					case -8:
 						break;
 					case 8:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.LESS, new TokenVal(CharNum.lineNum, CharNum.colNum));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.LESS, new TokenVal(lineNum, colNum));
 }
 					case -9:
 						break;
 					case 9:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.MINUS, new TokenVal(CharNum.lineNum, CharNum.colNum));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.MINUS, new TokenVal(lineNum, colNum));
 }
 					case -10:
 						break;
 					case 10:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.RPAREN, new TokenVal(CharNum.lineNum, CharNum.colNum));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.RPAREN, new TokenVal(lineNum, colNum));
 }
 					case -11:
 						break;
 					case 11:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.NOT, new TokenVal(CharNum.lineNum, CharNum.colNum));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.NOT, new TokenVal(lineNum, colNum));
 }
 					case -12:
 						break;
 					case 12:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.SEMICOLON, new TokenVal(CharNum.lineNum, CharNum.colNum));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.SEMICOLON, new TokenVal(lineNum, colNum));
 }
 					case -13:
 						break;
@@ -574,40 +581,40 @@ return new Symbol(sym.EOF);
 						break;
 					case 14:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.COMMA, new TokenVal(CharNum.lineNum, CharNum.colNum));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.COMMA, new TokenVal(lineNum, colNum));
 }
 					case -15:
 						break;
 					case 15:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.DOT, new TokenVal(CharNum.lineNum, CharNum.colNum));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.DOT, new TokenVal(lineNum, colNum));
 }
 					case -16:
 						break;
 					case 16:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.LCURLY, new TokenVal(CharNum.lineNum, CharNum.colNum));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.LCURLY, new TokenVal(lineNum, colNum));
 }
 					case -17:
 						break;
 					case 17:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.RCURLY, new TokenVal(CharNum.lineNum, CharNum.colNum));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.RCURLY, new TokenVal(lineNum, colNum));
 }
 					case -18:
 						break;
 					case 18:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
+      setPos();
+      col += yytext().length();
       int tmp = 0;
       try{
             tmp = new Integer(yytext()).intValue();
@@ -615,126 +622,126 @@ return new Symbol(sym.EOF);
             System.out.println("integer literal too large;");
             tmp = Integer.MAX_VALUE;
       }
-      return new Symbol(sym.INTLITERAL, new IntLitTokenVal(CharNum.lineNum, CharNum.colNum, tmp));
+      return new Symbol(sym.INTLITERAL, new IntLitTokenVal(lineNum, colNum, tmp));
 }
 					case -19:
 						break;
 					case 19:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.TIMES, new TokenVal(CharNum.lineNum, CharNum.colNum)); 
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.TIMES, new TokenVal(lineNum, colNum)); 
 }
 					case -20:
 						break;
 					case 20:
 						{
-      CharNum.setPos();
-      CharNum.col++;
+      setPos();
+      col++;
 }
 					case -21:
 						break;
 					case 21:
 						{
-      CharNum.line += 1;
-      CharNum.col = 1;
-      CharNum.setPos();
+      line += 1;
+      col = 1;
+      setPos();
 }
 					case -22:
 						break;
 					case 22:
 						{
-      CharNum.line += 1;
-      CharNum.col = 1;
-      CharNum.setPos();
+      line += 1;
+      col = 1;
+      setPos();
 }
 					case -23:
 						break;
 					case 23:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.PLUSPLUS, new TokenVal(CharNum.lineNum, CharNum.colNum));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.PLUSPLUS, new TokenVal(lineNum, colNum));
 }
 					case -24:
 						break;
 					case 24:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.EQUALS, new TokenVal(CharNum.lineNum, CharNum.colNum));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.EQUALS, new TokenVal(lineNum, colNum));
 }
 					case -25:
 						break;
 					case 25:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.GREATEREQ, new TokenVal(CharNum.lineNum, CharNum.colNum));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.GREATEREQ, new TokenVal(lineNum, colNum));
 }
 					case -26:
 						break;
 					case 26:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.READ, new TokenVal(CharNum.lineNum, CharNum.colNum));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.READ, new TokenVal(lineNum, colNum));
 }
 					case -27:
 						break;
 					case 27:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.IF, new TokenVal(CharNum.lineNum, CharNum.colNum));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.IF, new TokenVal(lineNum, colNum));
 }
 					case -28:
 						break;
 					case 28:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.LESSEQ, new TokenVal(CharNum.lineNum, CharNum.colNum));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.LESSEQ, new TokenVal(lineNum, colNum));
 }
 					case -29:
 						break;
 					case 29:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.WRITE, new TokenVal(CharNum.lineNum, CharNum.colNum));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.WRITE, new TokenVal(lineNum, colNum));
 }
 					case -30:
 						break;
 					case 30:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.MINUSMINUS, new TokenVal(CharNum.lineNum, CharNum.colNum));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.MINUSMINUS, new TokenVal(lineNum, colNum));
 }
 					case -31:
 						break;
 					case 31:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.NOTEQUALS, new TokenVal(CharNum.lineNum, CharNum.colNum));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.NOTEQUALS, new TokenVal(lineNum, colNum));
 }
 					case -32:
 						break;
 					case 32:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.AND, new TokenVal(CharNum.lineNum, CharNum.colNum));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.AND, new TokenVal(lineNum, colNum));
 }
 					case -33:
 						break;
 					case 33:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.OR, new TokenVal(CharNum.lineNum, CharNum.colNum));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.OR, new TokenVal(lineNum, colNum));
 }
 					case -34:
 						break;
@@ -746,25 +753,25 @@ return new Symbol(sym.EOF);
 						break;
 					case 35:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.STRINGLITERAL,new StrLitTokenVal(CharNum.lineNum, CharNum.colNum, yytext()));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.STRINGLITERAL,new StrLitTokenVal(lineNum, colNum, yytext()));
 }
 					case -36:
 						break;
 					case 36:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.INT, new TokenVal(CharNum.lineNum, CharNum.colNum));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.INT, new TokenVal(lineNum, colNum));
 }
 					case -37:
 						break;
 					case 37:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.CIN, new TokenVal(CharNum.lineNum, CharNum.colNum));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.CIN, new TokenVal(lineNum, colNum));
 }
 					case -38:
 						break;
@@ -776,41 +783,41 @@ return new Symbol(sym.EOF);
 						break;
 					case 39:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.TRUE, new TokenVal(CharNum.lineNum, CharNum.colNum));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.TRUE, new TokenVal(lineNum, colNum));
 }
 					case -40:
 						break;
 					case 40:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.BOOL, new TokenVal(CharNum.lineNum, CharNum.colNum));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.BOOL, new TokenVal(lineNum, colNum));
 }
 					case -41:
 						break;
 					case 41:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.ELSE, new TokenVal(CharNum.lineNum, CharNum.colNum));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.ELSE, new TokenVal(lineNum, colNum));
 }
 					case -42:
 						break;
 					case 42:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.COUT, new TokenVal(CharNum.lineNum, CharNum.colNum));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.COUT, new TokenVal(lineNum, colNum));
 }
 					case -43:
 						break;
 					case 43:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.VOID, new TokenVal(CharNum.lineNum, CharNum.colNum));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.VOID, new TokenVal(lineNum, colNum));
 }
 					case -44:
 						break;
@@ -822,41 +829,41 @@ return new Symbol(sym.EOF);
 						break;
 					case 45:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.FALSE, new TokenVal(CharNum.lineNum, CharNum.colNum));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.FALSE, new TokenVal(lineNum, colNum));
 }
 					case -46:
 						break;
 					case 46:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.WHILE, new TokenVal(CharNum.lineNum, CharNum.colNum));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.WHILE, new TokenVal(lineNum, colNum));
 }
 					case -47:
 						break;
 					case 47:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.RETURN, new TokenVal(CharNum.lineNum, CharNum.colNum));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.RETURN, new TokenVal(lineNum, colNum));
 }
 					case -48:
 						break;
 					case 48:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.STRUCT, new TokenVal(CharNum.lineNum, CharNum.colNum));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.STRUCT, new TokenVal(lineNum, colNum));
 }
 					case -49:
 						break;
 					case 50:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.ID, new IdTokenVal(CharNum.lineNum, CharNum.colNum, yytext()));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.ID, new IdTokenVal(lineNum, colNum, yytext()));
 }
 					case -50:
 						break;
@@ -880,9 +887,9 @@ return new Symbol(sym.EOF);
 						break;
 					case 55:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.ID, new IdTokenVal(CharNum.lineNum, CharNum.colNum, yytext()));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.ID, new IdTokenVal(lineNum, colNum, yytext()));
 }
 					case -54:
 						break;
@@ -906,9 +913,9 @@ return new Symbol(sym.EOF);
 						break;
 					case 60:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.ID, new IdTokenVal(CharNum.lineNum, CharNum.colNum, yytext()));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.ID, new IdTokenVal(lineNum, colNum, yytext()));
 }
 					case -58:
 						break;
@@ -926,9 +933,9 @@ return new Symbol(sym.EOF);
 						break;
 					case 64:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.ID, new IdTokenVal(CharNum.lineNum, CharNum.colNum, yytext()));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.ID, new IdTokenVal(lineNum, colNum, yytext()));
 }
 					case -61:
 						break;
@@ -940,257 +947,257 @@ return new Symbol(sym.EOF);
 						break;
 					case 67:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.ID, new IdTokenVal(CharNum.lineNum, CharNum.colNum, yytext()));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.ID, new IdTokenVal(lineNum, colNum, yytext()));
 }
 					case -63:
 						break;
 					case 69:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.ID, new IdTokenVal(CharNum.lineNum, CharNum.colNum, yytext()));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.ID, new IdTokenVal(lineNum, colNum, yytext()));
 }
 					case -64:
 						break;
 					case 71:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.ID, new IdTokenVal(CharNum.lineNum, CharNum.colNum, yytext()));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.ID, new IdTokenVal(lineNum, colNum, yytext()));
 }
 					case -65:
 						break;
 					case 73:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.ID, new IdTokenVal(CharNum.lineNum, CharNum.colNum, yytext()));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.ID, new IdTokenVal(lineNum, colNum, yytext()));
 }
 					case -66:
 						break;
 					case 75:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.ID, new IdTokenVal(CharNum.lineNum, CharNum.colNum, yytext()));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.ID, new IdTokenVal(lineNum, colNum, yytext()));
 }
 					case -67:
 						break;
 					case 77:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.ID, new IdTokenVal(CharNum.lineNum, CharNum.colNum, yytext()));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.ID, new IdTokenVal(lineNum, colNum, yytext()));
 }
 					case -68:
 						break;
 					case 79:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.ID, new IdTokenVal(CharNum.lineNum, CharNum.colNum, yytext()));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.ID, new IdTokenVal(lineNum, colNum, yytext()));
 }
 					case -69:
 						break;
 					case 81:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.ID, new IdTokenVal(CharNum.lineNum, CharNum.colNum, yytext()));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.ID, new IdTokenVal(lineNum, colNum, yytext()));
 }
 					case -70:
 						break;
 					case 85:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.ID, new IdTokenVal(CharNum.lineNum, CharNum.colNum, yytext()));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.ID, new IdTokenVal(lineNum, colNum, yytext()));
 }
 					case -71:
 						break;
 					case 89:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.ID, new IdTokenVal(CharNum.lineNum, CharNum.colNum, yytext()));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.ID, new IdTokenVal(lineNum, colNum, yytext()));
 }
 					case -72:
 						break;
 					case 90:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.ID, new IdTokenVal(CharNum.lineNum, CharNum.colNum, yytext()));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.ID, new IdTokenVal(lineNum, colNum, yytext()));
 }
 					case -73:
 						break;
 					case 91:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.ID, new IdTokenVal(CharNum.lineNum, CharNum.colNum, yytext()));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.ID, new IdTokenVal(lineNum, colNum, yytext()));
 }
 					case -74:
 						break;
 					case 92:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.ID, new IdTokenVal(CharNum.lineNum, CharNum.colNum, yytext()));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.ID, new IdTokenVal(lineNum, colNum, yytext()));
 }
 					case -75:
 						break;
 					case 93:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.ID, new IdTokenVal(CharNum.lineNum, CharNum.colNum, yytext()));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.ID, new IdTokenVal(lineNum, colNum, yytext()));
 }
 					case -76:
 						break;
 					case 94:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.ID, new IdTokenVal(CharNum.lineNum, CharNum.colNum, yytext()));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.ID, new IdTokenVal(lineNum, colNum, yytext()));
 }
 					case -77:
 						break;
 					case 95:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.ID, new IdTokenVal(CharNum.lineNum, CharNum.colNum, yytext()));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.ID, new IdTokenVal(lineNum, colNum, yytext()));
 }
 					case -78:
 						break;
 					case 96:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.ID, new IdTokenVal(CharNum.lineNum, CharNum.colNum, yytext()));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.ID, new IdTokenVal(lineNum, colNum, yytext()));
 }
 					case -79:
 						break;
 					case 97:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.ID, new IdTokenVal(CharNum.lineNum, CharNum.colNum, yytext()));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.ID, new IdTokenVal(lineNum, colNum, yytext()));
 }
 					case -80:
 						break;
 					case 98:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.ID, new IdTokenVal(CharNum.lineNum, CharNum.colNum, yytext()));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.ID, new IdTokenVal(lineNum, colNum, yytext()));
 }
 					case -81:
 						break;
 					case 99:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.ID, new IdTokenVal(CharNum.lineNum, CharNum.colNum, yytext()));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.ID, new IdTokenVal(lineNum, colNum, yytext()));
 }
 					case -82:
 						break;
 					case 100:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.ID, new IdTokenVal(CharNum.lineNum, CharNum.colNum, yytext()));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.ID, new IdTokenVal(lineNum, colNum, yytext()));
 }
 					case -83:
 						break;
 					case 101:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.ID, new IdTokenVal(CharNum.lineNum, CharNum.colNum, yytext()));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.ID, new IdTokenVal(lineNum, colNum, yytext()));
 }
 					case -84:
 						break;
 					case 102:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.ID, new IdTokenVal(CharNum.lineNum, CharNum.colNum, yytext()));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.ID, new IdTokenVal(lineNum, colNum, yytext()));
 }
 					case -85:
 						break;
 					case 103:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.ID, new IdTokenVal(CharNum.lineNum, CharNum.colNum, yytext()));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.ID, new IdTokenVal(lineNum, colNum, yytext()));
 }
 					case -86:
 						break;
 					case 104:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.ID, new IdTokenVal(CharNum.lineNum, CharNum.colNum, yytext()));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.ID, new IdTokenVal(lineNum, colNum, yytext()));
 }
 					case -87:
 						break;
 					case 105:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.ID, new IdTokenVal(CharNum.lineNum, CharNum.colNum, yytext()));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.ID, new IdTokenVal(lineNum, colNum, yytext()));
 }
 					case -88:
 						break;
 					case 106:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.ID, new IdTokenVal(CharNum.lineNum, CharNum.colNum, yytext()));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.ID, new IdTokenVal(lineNum, colNum, yytext()));
 }
 					case -89:
 						break;
 					case 107:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.ID, new IdTokenVal(CharNum.lineNum, CharNum.colNum, yytext()));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.ID, new IdTokenVal(lineNum, colNum, yytext()));
 }
 					case -90:
 						break;
 					case 108:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.ID, new IdTokenVal(CharNum.lineNum, CharNum.colNum, yytext()));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.ID, new IdTokenVal(lineNum, colNum, yytext()));
 }
 					case -91:
 						break;
 					case 109:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.ID, new IdTokenVal(CharNum.lineNum, CharNum.colNum, yytext()));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.ID, new IdTokenVal(lineNum, colNum, yytext()));
 }
 					case -92:
 						break;
 					case 110:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.ID, new IdTokenVal(CharNum.lineNum, CharNum.colNum, yytext()));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.ID, new IdTokenVal(lineNum, colNum, yytext()));
 }
 					case -93:
 						break;
 					case 111:
 						{
-      CharNum.setPos();
-      CharNum.col += yytext().length();
-      return new Symbol(sym.ID, new IdTokenVal(CharNum.lineNum, CharNum.colNum, yytext()));
+      setPos();
+      col += yytext().length();
+      return new Symbol(sym.ID, new IdTokenVal(lineNum, colNum, yytext()));
 }
 					case -94:
 						break;
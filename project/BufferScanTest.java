@@ -0,0 +1,123 @@
+import java.io.*;
+import java.nio.CharBuffer;
+import java.util.*;
+import java_cup.runtime.*;
+
+/**
+ * This program is to be used to test the scanners which scan their input
+ * in place (Yylex(CharBuffer) and Yylex.open). Each file is scanned
+ * through a FileReader, then through Yylex.open, and through a CharBuffer
+ * of its text (whole, and without its last char, so that its last token
+ * is cut by the end of the input); the tokens (kind, line, character and
+ * value) must be exactly the ones read through the FileReader, and the
+ * chars of the CharBuffer must be left as they were.
+ *
+ * Usage: java BufferScanTest file ...
+ */
+public class BufferScanTest {
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("usage: java BufferScanTest file ...");
+            System.exit(-1);
+        }
+
+        PrintStream err = System.err;
+        System.setErr(new PrintStream(new ByteArrayOutputStream()));   // the scanner errors
+        int failures = 0;
+        int scans = 0;
+        for (String file : args) {
+            String text = read(file);
+            List<String> expected;
+            try (Reader in = new FileReader(file)) {
+                expected = scan(new Yylex(in));
+            }
+            failures += check(file + " (open)", expected, scan(Yylex.open(file)));
+            failures += check(file + " (CharBuffer)", expected, scanBuffer(text));
+            if (text.length() > 0) {
+                String cut = text.substring(0, text.length() - 1);
+                failures += check(file + " (CharBuffer, cut)",
+                                  scan(new Yylex(new StringReader(cut))), scanBuffer(cut));
+            }
+            scans += 3;
+        }
+        System.setErr(err);
+
+        System.out.println(scans + " scans of " + args.length + " files: "
+                           + (failures == 0 ? "all tokens match" : failures + " scans differ"));
+        if (failures != 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Returns the tokens of 'text' scanned through a CharBuffer, and
+     * checks that the chars of the buffer are left as they were
+     */
+    private static List<String> scanBuffer(String text) throws IOException {
+        char[] chars = text.toCharArray();
+        List<String> tokens = scan(new Yylex(CharBuffer.wrap(chars)));
+        if (!new String(chars).equals(text)) {
+            tokens.add("(the chars of the CharBuffer were changed)");
+        }
+        return tokens;
+    }
+
+    /**
+     * Returns the tokens 'scanner' returns, one String per token
+     */
+    private static List<String> scan(Yylex scanner) throws IOException {
+        List<String> tokens = new ArrayList<String>();
+        for (Symbol token = scanner.next_token(); token.sym != sym.EOF; token = scanner.next_token()) {
+            tokens.add(toString(token));
+        }
+        return tokens;
+    }
+
+    /**
+     * Returns the kind, position and value of 'token'
+     */
+    private static String toString(Symbol token) {
+        TokenVal val = (TokenVal) token.value;
+        String str = token.sym + " " + val.linenum + ":" + val.charnum;
+        if (val instanceof IdTokenVal) {
+            str += " " + ((IdTokenVal) val).idVal;
+        } else if (val instanceof IntLitTokenVal) {
+            str += " " + ((IntLitTokenVal) val).intVal;
+        } else if (val instanceof StrLitTokenVal) {
+            str += " " + ((StrLitTokenVal) val).strVal;
+        }
+        return str;
+    }
+
+    /**
+     * Prints the first token of 'tokens' which is not the expected one
+     * and returns 1, or returns 0 if they are the same
+     */
+    private static int check(String scan, List<String> expected, List<String> tokens) {
+        if (tokens.equals(expected)) {
+            return 0;
+        }
+        int i = 0;
+        while (i < expected.size() && i < tokens.size() && expected.get(i).equals(tokens.get(i))) {
+            i++;
+        }
+        System.out.println(scan + ": token " + (i + 1) + " is "
+                           + (i < tokens.size() ? tokens.get(i) : "missing")
+                           + ", expected " + (i < expected.size() ? expected.get(i) : "none"));
+        return 1;
+    }
+
+    /**
+     * Returns the text of file 'file'
+     */
+    private static String read(String file) throws IOException {
+        StringBuilder text = new StringBuilder();
+        try (Reader in = new FileReader(file)) {
+            char[] buf = new char[4096];
+            for (int n = in.read(buf); n >= 0; n = in.read(buf)) {
+                text.append(buf, 0, n);
+            }
+        }
+        return text.toString();
+    }
+}
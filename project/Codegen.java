@@ -17,7 +17,8 @@ import java.io.*;
 //     genPush
 //     genPop
 //     genLabel
-// and a method nextLabel to create and return a new label.
+// a method nextLabel to create and return a new label, and a method
+// asciiz to spell a string for the .asciiz directive.
 //
 // **********************************************************************
 
@@ -251,4 +252,25 @@ public class Codegen {
         String tmp = ".L" + k;
         return(tmp);
     }
+
+    // **********************************************************************
+    // Return the string s in quotes, with its newlines, tabs, quotes and
+    // backslashes escaped, as the operand of an .asciiz directive
+    // **********************************************************************
+    public static String asciiz(String s) {
+        StringBuilder sb = new StringBuilder(s.length() + 2);
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+            case '\n': sb.append("\\n"); break;
+            case '\t': sb.append("\\t"); break;
+            case '"':  sb.append("\\\""); break;
+            case '\\': sb.append("\\\\"); break;
+            default:   sb.append(c);
+            }
+        }
+        sb.append('"');
+        return sb.toString();
+    }
 }
@@ -0,0 +1,113 @@
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java_cup.runtime.*;
+
+/**
+ * This program is to be used to test that scanners can run at the
+ * same time. Each file is first scanned on its own; then all the files
+ * are scanned again and again on a thread pool, and the tokens each
+ * scanner returns (kind, line, character and value) must be exactly
+ * the ones it returned alone.
+ *
+ * Usage: java ConcurrentScanTest [-threads n] [-rounds n] file ...
+ */
+public class ConcurrentScanTest {
+    public static void main(String[] args) throws Exception {
+        int threads = 8;
+        int rounds = 50;
+        List<String> files = new ArrayList<String>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-threads") && i + 1 < args.length) {
+                threads = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("-rounds") && i + 1 < args.length) {
+                rounds = Integer.parseInt(args[++i]);
+            } else {
+                files.add(args[i]);
+            }
+        }
+        if (files.isEmpty()) {
+            System.err.println("usage: java ConcurrentScanTest [-threads n] [-rounds n] file ...");
+            System.exit(-1);
+        }
+
+        // the tokens of each file, scanned alone
+        final Map<String, List<String>> expected = new HashMap<String, List<String>>();
+        for (String file : files) {
+            expected.put(file, scan(file));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<String>> results = new ArrayList<Future<String>>();
+        for (int round = 0; round < rounds; round++) {
+            for (final String file : files) {
+                results.add(pool.submit(new Callable<String>() {
+                    public String call() throws IOException {
+                        List<String> tokens = scan(file);
+                        return tokens.equals(expected.get(file)) ? null : difference(file, expected.get(file), tokens);
+                    }
+                }));
+            }
+        }
+        int failures = 0;
+        for (Future<String> result : results) {
+            String failure = result.get();
+            if (failure != null) {
+                System.out.println(failure);
+                failures++;
+            }
+        }
+        pool.shutdown();
+
+        System.out.println(results.size() + " scans of " + files.size() + " files on " + threads + " threads: "
+                           + (failures == 0 ? "all tokens match" : failures + " scans differ"));
+        if (failures != 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Returns the tokens of file 'infile', one String per token
+     */
+    private static List<String> scan(String infile) throws IOException {
+        List<String> tokens = new ArrayList<String>();
+        try (FileReader inFile = new FileReader(infile)) {
+            Yylex scanner = new Yylex(inFile);
+            Symbol token = scanner.next_token();
+            while (token.sym != sym.EOF) {
+                tokens.add(toString(token));
+                token = scanner.next_token();
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Returns the kind, position and value of 'token'
+     */
+    private static String toString(Symbol token) {
+        TokenVal val = (TokenVal) token.value;
+        String str = token.sym + " " + val.linenum + ":" + val.charnum;
+        if (val instanceof IdTokenVal) {
+            str += " " + ((IdTokenVal) val).idVal;
+        } else if (val instanceof IntLitTokenVal) {
+            str += " " + ((IntLitTokenVal) val).intVal;
+        } else if (val instanceof StrLitTokenVal) {
+            str += " " + ((StrLitTokenVal) val).strVal;
+        }
+        return str;
+    }
+
+    /**
+     * Describes the first token of 'file' which is not the expected one
+     */
+    private static String difference(String file, List<String> expected, List<String> tokens) {
+        int i = 0;
+        while (i < expected.size() && i < tokens.size() && expected.get(i).equals(tokens.get(i))) {
+            i++;
+        }
+        return file + ": token " + (i + 1) + " is "
+               + (i < tokens.size() ? tokens.get(i) : "missing")
+               + ", expected " + (i < expected.size() ? expected.get(i) : "none");
+    }
+}
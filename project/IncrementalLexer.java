@@ -0,0 +1,318 @@
+import java.io.*;
+import java.util.Arrays;
+import java_cup.runtime.*;
+
+/**
+ * IncrementalLexer
+ *
+ * This class keeps the text of a C-- source being edited together with
+ * its tokens, and brings the tokens up to date after each edit of the
+ * text by scanning again only the lines the edit touched.
+ *
+ * No token of C-- spans a newline, and the scanner starts each line in
+ * the same state (the character number back to 1), so the tokens of a
+ * line only depend on the text of that line. The tokens of an edit from
+ * offset 'start' to offset 'end' are thus scanned again from the start
+ * of the line of 'start' (the last safe restart point) up to the end of
+ * the line of 'end' in the new text. Past that, the new tokens line up
+ * with the old ones, moved by the number of chars and lines the edit
+ * added, and they are not scanned again.
+ *
+ * For each token the class keeps its kind, its offset in the text, its
+ * line and character numbers (as given by the scanner) and its value (as
+ * in a TokenBuffer: the value of an INTLITERAL, the id of an ID in the
+ * Names of the lexer, or the id of a STRINGLITERAL in the StringLiterals
+ * of the lexer). These pools keep every name and literal the edits ever
+ * made, so an editor which keeps the lexer for long calls compact() now
+ * and then.
+ *
+ * The scanner reports the errors of the lines it scans again, as it
+ * does for a whole file.
+ */
+class IncrementalLexer {
+    private char[] text;
+    private int length;
+    private Tokens tokens;
+    private Names names = new Names();
+    private StringLiterals literals = new StringLiterals();
+
+    /**
+     * Builds an IncrementalLexer of the text 'source', whose tokens
+     * are all scanned at once.
+     */
+    IncrementalLexer(String source) throws IOException {
+        text = source.toCharArray();
+        length = text.length;
+        tokens = scan(0, length, 1);
+    }
+
+    /**
+     * Replaces the chars of the text from offset 'start' to offset
+     * 'end' - 1 with 'insert', updates the tokens, and returns which of
+     * them changed.
+     */
+    Change replace(int start, int end, String insert) throws IOException {
+        if (start < 0 || start > end || end > length) {
+            throw new IndexOutOfBoundsException("edit " + start + ".." + end + " of a text of " + length + " chars");
+        }
+        int delta = insert.length() - (end - start);
+        int lineDelta = -newlines(text, start, end);
+
+        // the new text
+        if (length + delta > text.length) {
+            text = Arrays.copyOf(text, Math.max(2 * text.length, length + delta));
+        }
+        System.arraycopy(text, end, text, end + delta, length - end);
+        insert.getChars(0, insert.length(), text, start);
+        length += delta;
+        lineDelta += newlines(text, start, start + insert.length());
+
+        // the lines to scan again, from..to - 1 in the new text
+        int from = start;
+        while (from > 0 && text[from - 1] != '\n') {
+            from--;
+        }
+        int to = start + insert.length();
+        while (to < length && text[to] != '\n') {
+            to++;
+        }
+        if (to < length) {
+            to++;
+        }
+
+        // their old tokens, first..last - 1
+        int first = tokens.search(from);
+        int last = tokens.search(to - delta);
+        int line = first > 0 ? tokens.lines[first - 1] + newlines(text, tokens.offsets[first - 1], from)
+                             : 1 + newlines(text, 0, from);
+        Tokens scanned = scan(from, to, line);
+
+        // leave out the tokens which are the same before and after the edit
+        int newFirst = 0;
+        int newLast = scanned.size;
+        while (first < last && newFirst < newLast
+               && tokens.same(first, scanned, newFirst, 0, 0)) {
+            first++;
+            newFirst++;
+        }
+        while (first < last && newFirst < newLast
+               && tokens.same(last - 1, scanned, newLast - 1, delta, lineDelta)) {
+            last--;
+            newLast--;
+        }
+
+        // the tokens after them, moved
+        for (int i = last; i < tokens.size; i++) {
+            tokens.offsets[i] += delta;
+            tokens.lines[i] += lineDelta;
+        }
+        tokens.replace(first, last, scanned, newFirst, newLast);
+        return new Change(first, last - first, newLast - newFirst);
+    }
+
+    /**
+     * Replaces the Names and the StringLiterals of the lexer with new
+     * ones, which only have the names and the literals of the text, and
+     * numbers the tokens in these.
+     */
+    void compact() {
+        Names oldNames = names;
+        StringLiterals oldLiterals = literals;
+        names = new Names();
+        literals = new StringLiterals();
+        for (int i = 0; i < tokens.size; i++) {
+            if (tokens.kinds[i] == sym.ID) {
+                tokens.values[i] = names.id(oldNames.get(tokens.values[i]));
+            } else if (tokens.kinds[i] == sym.STRINGLITERAL) {
+                String text = oldLiterals.text(tokens.values[i]);
+                tokens.values[i] = literals.id(text.toCharArray(), 0, text.length());
+            }
+        }
+    }
+
+    /**
+     * Returns the text.
+     */
+    String text() {
+        return new String(text, 0, length);
+    }
+
+    int size() {
+        return tokens.size;
+    }
+
+    int kind(int i) {
+        return tokens.kinds[i];
+    }
+
+    /**
+     * Returns the offset in the text of the first char of token 'i'.
+     */
+    int offset(int i) {
+        return tokens.offsets[i];
+    }
+
+    int line(int i) {
+        return tokens.lines[i];
+    }
+
+    int charNum(int i) {
+        return tokens.charNums[i];
+    }
+
+    /**
+     * Returns the value of the INTLITERAL token 'i', the id of the ID
+     * token 'i' in the Names of the lexer, or the id of the STRINGLITERAL
+     * token 'i' in the StringLiterals of the lexer.
+     */
+    int value(int i) {
+        return tokens.values[i];
+    }
+
+    /**
+     * Returns the text of the ID or STRINGLITERAL token 'i'.
+     */
+    String stringValue(int i) {
+        return tokens.kinds[i] == sym.ID ? names.get(tokens.values[i]) : literals.text(tokens.values[i]);
+    }
+
+    /**
+     * Returns the tokens of the text from offset 'from' to offset
+     * 'to' - 1, which starts at the beginning of line 'line'.
+     */
+    private Tokens scan(int from, int to, int line) throws IOException {
+        Tokens scanned = new Tokens();
+        Yylex scanner = new Yylex(new CharArrayReader(text, from, to - from), names, literals);
+        scanner.setLine(line);
+        for (Symbol token = scanner.next_token(); token.sym != sym.EOF; token = scanner.next_token()) {
+            TokenVal val = (TokenVal) token.value;
+            int value = 0;
+            if (val instanceof IdTokenVal) {
+                value = ((IdTokenVal) val).id;
+            } else if (val instanceof IntLitTokenVal) {
+                value = ((IntLitTokenVal) val).intVal;
+            } else if (val instanceof StrLitTokenVal) {
+                value = ((StrLitTokenVal) val).strId;
+            }
+            scanned.add(token.sym, from + scanner.charOffset(), val.linenum, val.charnum, value);
+        }
+        return scanned;
+    }
+
+    /**
+     * Returns the number of newlines in chars[from .. to - 1].
+     */
+    private static int newlines(char[] chars, int from, int to) {
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            if (chars[i] == '\n') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * A Change tells which tokens an edit changed: the 'removed' tokens
+     * from index 'first' on were replaced with 'added' new tokens.
+     */
+    static class Change {
+        final int first;
+        final int removed;
+        final int added;
+
+        Change(int first, int removed, int added) {
+            this.first = first;
+            this.removed = removed;
+            this.added = added;
+        }
+
+        public String toString() {
+            return "tokens " + first + ".." + (first + removed) + " replaced with " + added + " tokens";
+        }
+    }
+
+    /**
+     * A list of tokens, in parallel arrays, sorted by offset.
+     */
+    private static class Tokens {
+        private static final int INITIAL_CAPACITY = 64;
+
+        int[] kinds = new int[INITIAL_CAPACITY];
+        int[] offsets = new int[INITIAL_CAPACITY];
+        int[] lines = new int[INITIAL_CAPACITY];
+        int[] charNums = new int[INITIAL_CAPACITY];
+        int[] values = new int[INITIAL_CAPACITY];
+        int size;
+
+        void add(int kind, int offset, int line, int charNum, int value) {
+            ensureCapacity(size + 1);
+            kinds[size] = kind;
+            offsets[size] = offset;
+            lines[size] = line;
+            charNums[size] = charNum;
+            values[size] = value;
+            size++;
+        }
+
+        /**
+         * Returns the index of the first token at offset 'offset' or
+         * after (size if there is none).
+         */
+        int search(int offset) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (offsets[mid] < offset) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Returns true if token 'i', moved by 'delta' chars and
+         * 'lineDelta' lines, is token 'j' of 'other'.
+         */
+        boolean same(int i, Tokens other, int j, int delta, int lineDelta) {
+            return kinds[i] == other.kinds[j] && values[i] == other.values[j]
+                   && offsets[i] + delta == other.offsets[j] && lines[i] + lineDelta == other.lines[j]
+                   && charNums[i] == other.charNums[j];
+        }
+
+        /**
+         * Replaces tokens 'from' .. 'to' - 1 with tokens 'begin' ..
+         * 'end' - 1 of 'with'.
+         */
+        void replace(int from, int to, Tokens with, int begin, int end) {
+            int newSize = size - (to - from) + (end - begin);
+            ensureCapacity(newSize);
+            int moved = from + end - begin;
+            move(kinds, with.kinds, from, to, moved, begin);
+            move(offsets, with.offsets, from, to, moved, begin);
+            move(lines, with.lines, from, to, moved, begin);
+            move(charNums, with.charNums, from, to, moved, begin);
+            move(values, with.values, from, to, moved, begin);
+            size = newSize;
+        }
+
+        private void move(int[] array, int[] with, int from, int to, int moved, int begin) {
+            System.arraycopy(array, to, array, moved, size - to);
+            System.arraycopy(with, begin, array, from, moved - from);
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > kinds.length) {
+                capacity = Math.max(capacity, 2 * kinds.length);
+                kinds = Arrays.copyOf(kinds, capacity);
+                offsets = Arrays.copyOf(offsets, capacity);
+                lines = Arrays.copyOf(lines, capacity);
+                charNums = Arrays.copyOf(charNums, capacity);
+                values = Arrays.copyOf(values, capacity);
+            }
+        }
+    }
+}
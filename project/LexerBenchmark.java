@@ -0,0 +1,353 @@
+import java.io.*;
+import java.lang.management.*;
+import java.nio.CharBuffer;
+import java.util.*;
+import java_cup.runtime.*;
+
+/**
+ * Measures the throughput of the scanner, Yylex.next_token(), on
+ * generated C-- sources of several token mixes, so that changes to the
+ * rules of cmm.jlex can be compared run to run:
+ *   ids       declarations and expressions with many long identifiers
+ *   strings   cout of string literals full of escaped characters
+ *   comments  a few statements among long // and # comments
+ *   nested    deeply nested ifs, whiles, blocks and parenthesized
+ *             expressions (mostly one- and two-char tokens)
+ *   mixed     functions which mix all of the above
+ *
+ * Each source is scanned for WARMUP iterations, then measured over
+ * ITERATIONS iterations; an iteration scans the source again and again
+ * until it has run for at least MIN_ITERATION_TIME. The report gives,
+ * per source, the latency (ns per token, mean and standard deviation
+ * over the iterations), the throughput (tokens/s and MB/s of source),
+ * and the allocations (bytes per token, read from the allocation
+ * counter of the thread).
+ *
+ * The sources are generated in memory, with a fixed seed, for each of
+ * the given sizes (in KB); the given C-- files are measured as well.
+ * Each source is measured through each of the given inputs of the
+ * scanner:
+ *   reader    a CharArrayReader of the source, read into the buffer of
+ *             the scanner by refills
+ *   buffer    a CharBuffer of the source, copied once and scanned in
+ *             place (see Yylex(CharBuffer))
+ *
+ * Usage: java LexerBenchmark [-warmup n] [-iterations n] [-sizes kb,kb,...]
+ *                            [-mixes mix,mix,...] [-inputs input,...] [file ...]
+ */
+public class LexerBenchmark {
+
+    private static final int WARMUP = 2;
+    private static final int ITERATIONS = 5;
+    private static final long MIN_ITERATION_TIME = 200000000L;
+    private static final long SOURCE_SEED = 20240101L;
+    private static final String MIXES = "ids,strings,comments,nested,mixed";
+    private static final String INPUTS = "reader,buffer";
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) throws IOException {
+        int warmup = WARMUP;
+        int iterations = ITERATIONS;
+        String sizes = "64,4096";
+        String mixes = MIXES;
+        String inputs = INPUTS;
+        List<String> files = new ArrayList<String>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-warmup") && i + 1 < args.length) {
+                warmup = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("-iterations") && i + 1 < args.length) {
+                iterations = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("-sizes") && i + 1 < args.length) {
+                sizes = args[++i];
+            } else if (args[i].equals("-mixes") && i + 1 < args.length) {
+                mixes = args[++i];
+            } else if (args[i].equals("-inputs") && i + 1 < args.length) {
+                inputs = args[++i];
+            } else {
+                files.add(args[i]);
+            }
+        }
+
+        System.out.printf("%-20s %-8s %10s %10s %8s %14s %10s %10s%n", "source", "input", "tokens",
+                "ns/token", "+-", "tokens/s", "MB/s", "B/token");
+        for (String file : files) {
+            report(file, read(file), inputs, warmup, iterations);
+        }
+        if (!sizes.isEmpty()) {
+            for (String size : sizes.split(",")) {
+                for (String mix : mixes.split(",")) {
+                    int kilobytes = Integer.parseInt(size.trim());
+                    report(mix.trim() + "-" + kilobytes + "k", generate(mix.trim(), kilobytes), inputs, warmup, iterations);
+                }
+            }
+        }
+    }
+
+    /**
+     * The measures of a source
+     */
+    private static class Result {
+        long tokens;
+        double latency;
+        double deviation;
+        double bytesPerSecond;
+        double allocatedPerToken;
+    }
+
+    /**
+     * Measures the scan of 'source' through each of 'inputs' and prints
+     * a line of the report for each
+     */
+    private static void report(String name, char[] source, String inputs, int warmup, int iterations) throws IOException {
+        for (String input : inputs.split(",")) {
+            boolean buffer = input.trim().equals("buffer");
+            Result result = measure(source, buffer, warmup, iterations);
+            System.out.printf("%-20s %-8s %10d %10.2f %8.2f %14.0f %10.1f %10.1f%n", name, input.trim(),
+                    result.tokens, result.latency, result.deviation, 1e9 / result.latency,
+                    result.bytesPerSecond / 1e6, result.allocatedPerToken);
+        }
+    }
+
+    /**
+     * Scans 'source' (through a CharBuffer if 'buffer', through a
+     * CharArrayReader otherwise) for 'warmup' iterations, then measures
+     * the scan over 'iterations' iterations
+     */
+    private static Result measure(char[] source, boolean buffer, int warmup, int iterations) throws IOException {
+        for (int i = 0; i < warmup; i++) {
+            iterate(source, buffer);
+        }
+        double[] latencies = new double[iterations];
+        long totalTime = 0;
+        long totalRuns = 0;
+        long totalTokens = 0;
+        long totalAllocated = 0;
+        for (int i = 0; i < iterations; i++) {
+            long thread = Thread.currentThread().getId();
+            long allocated = THREADS.getThreadAllocatedBytes(thread);
+            long start = System.nanoTime();
+            long[] runsAndTokens = iterate(source, buffer);
+            long time = System.nanoTime() - start;
+            totalAllocated += THREADS.getThreadAllocatedBytes(thread) - allocated;
+            totalTime += time;
+            totalRuns += runsAndTokens[0];
+            totalTokens += runsAndTokens[1];
+            latencies[i] = (double) time / Math.max(runsAndTokens[1], 1);
+        }
+
+        Result result = new Result();
+        result.tokens = totalTokens / Math.max(totalRuns, 1);
+        for (double latency : latencies) {
+            result.latency += latency / iterations;
+        }
+        for (double latency : latencies) {
+            result.deviation += (latency - result.latency) * (latency - result.latency) / iterations;
+        }
+        result.deviation = Math.sqrt(result.deviation);
+        result.bytesPerSecond = source.length * (double) totalRuns / totalTime * 1e9;
+        result.allocatedPerToken = (double) totalAllocated / Math.max(totalTokens, 1);
+        return result;
+    }
+
+    /**
+     * Scans 'source' until MIN_ITERATION_TIME has passed and returns
+     * the number of scans and the number of tokens returned
+     */
+    private static long[] iterate(char[] source, boolean buffer) throws IOException {
+        long start = System.nanoTime();
+        long runs = 0;
+        long tokens = 0;
+        do {
+            tokens += scan(source, buffer);
+            runs++;
+        } while (System.nanoTime() - start < MIN_ITERATION_TIME);
+        return new long[] { runs, tokens };
+    }
+
+    /**
+     * Scans 'source' and returns the number of tokens
+     */
+    private static long scan(char[] source, boolean buffer) throws IOException {
+        Yylex scanner = buffer ? new Yylex(CharBuffer.wrap(source)) : new Yylex(new CharArrayReader(source));
+        long tokens = 0;
+        while (scanner.next_token().sym != sym.EOF) {
+            tokens++;
+        }
+        return tokens;
+    }
+
+    /**
+     * Returns the text of file 'file'
+     */
+    private static char[] read(String file) throws IOException {
+        CharArrayWriter text = new CharArrayWriter();
+        try (Reader in = new FileReader(file)) {
+            char[] buf = new char[4096];
+            for (int n = in.read(buf); n >= 0; n = in.read(buf)) {
+                text.write(buf, 0, n);
+            }
+        }
+        return text.toCharArray();
+    }
+
+    /**
+     * Returns a generated source of mix 'mix' and of about 'kilobytes' KB
+     * (whole functions are generated until the size is reached)
+     */
+    private static char[] generate(String mix, int kilobytes) {
+        Generator generator = new Generator(new Random(SOURCE_SEED));
+        StringBuilder source = generator.source;
+        int size = kilobytes << 10;
+        int function = 0;
+        while (source.length() < size) {
+            source.append("void f").append(function++).append("(int a, bool b) {\n");
+            if (mix.equals("ids")) {
+                generator.identifiers(40);
+            } else if (mix.equals("strings")) {
+                generator.strings(40);
+            } else if (mix.equals("comments")) {
+                generator.comments(40);
+            } else if (mix.equals("nested")) {
+                generator.nested(1, 32);
+            } else if (mix.equals("mixed")) {
+                generator.identifiers(10);
+                generator.strings(10);
+                generator.comments(10);
+                generator.nested(1, 8);
+            } else {
+                throw new IllegalArgumentException("unknown mix " + mix + " (expected one of " + MIXES + ")");
+            }
+            source.append("}\n");
+        }
+        return source.toString().toCharArray();
+    }
+
+    /**
+     * Writes random statements of the different mixes to a source
+     */
+    private static class Generator {
+        private static final String[] OPERATORS = { "+", "-", "*", "/", "&&", "||", "==", "!=", "<", ">", "<=", ">=" };
+        private static final String[] ESCAPES = { "\\n", "\\t", "\\'", "\\\"", "\\?", "\\\\" };
+
+        final StringBuilder source = new StringBuilder();
+        private final Random random;
+        private final String[] names = new String[1000];
+
+        Generator(Random random) {
+            this.random = random;
+            for (int i = 0; i < names.length; i++) {
+                StringBuilder name = new StringBuilder();
+                name.append((char) ('a' + random.nextInt(26)));
+                for (int j = random.nextInt(12); j > 0; j--) {
+                    int c = random.nextInt(38);
+                    name.append(c < 26 ? (char) ('a' + c) : c < 36 ? (char) ('0' + c - 26) : '_');
+                }
+                names[i] = name.toString();
+            }
+        }
+
+        private String name() {
+            return names[random.nextInt(names.length)];
+        }
+
+        private void indent(int depth) {
+            for (int i = 0; i < depth; i++) {
+                source.append("    ");
+            }
+        }
+
+        /**
+         * 'count' declarations and assignments of long expressions
+         */
+        void identifiers(int count) {
+            for (int i = 0; i < count; i++) {
+                indent(1);
+                if (random.nextInt(3) == 0) {
+                    source.append("int ").append(name()).append(";\n");
+                } else {
+                    source.append(name()).append('.').append(name()).append(" = ").append(name());
+                    for (int j = random.nextInt(6); j >= 0; j--) {
+                        source.append(' ').append(OPERATORS[random.nextInt(OPERATORS.length)]).append(' ');
+                        source.append(random.nextInt(4) == 0 ? String.valueOf(random.nextInt(100000)) : name());
+                    }
+                    source.append(";\n");
+                }
+            }
+        }
+
+        /**
+         * 'count' outputs of string literals
+         */
+        void strings(int count) {
+            for (int i = 0; i < count; i++) {
+                indent(1);
+                source.append("cout << \"");
+                for (int j = 4 + random.nextInt(40); j > 0; j--) {
+                    if (random.nextInt(6) == 0) {
+                        source.append(ESCAPES[random.nextInt(ESCAPES.length)]);
+                    } else {
+                        source.append((char) (' ' + 1 + random.nextInt(94)));
+                        if (source.charAt(source.length() - 1) == '"' || source.charAt(source.length() - 1) == '\\') {
+                            source.setLength(source.length() - 1);
+                        }
+                    }
+                }
+                source.append("\";\n");
+            }
+        }
+
+        /**
+         * 'count' comments, with a statement now and then
+         */
+        void comments(int count) {
+            for (int i = 0; i < count; i++) {
+                indent(1);
+                source.append(random.nextBoolean() ? "// " : "# ");
+                for (int j = 20 + random.nextInt(80); j > 0; j--) {
+                    source.append((char) (' ' + random.nextInt(95)));
+                }
+                source.append('\n');
+                if (random.nextInt(4) == 0) {
+                    indent(1);
+                    source.append(name()).append("++;\n");
+                }
+            }
+        }
+
+        /**
+         * A statement nested 'depth' to 'maxDepth' deep
+         */
+        void nested(int depth, int maxDepth) {
+            indent(depth);
+            if (depth == maxDepth) {
+                source.append(name()).append(" = ");
+                parenthesized(random.nextInt(8));
+                source.append(";\n");
+                return;
+            }
+            source.append(random.nextBoolean() ? "if (" : "while (");
+            parenthesized(random.nextInt(4));
+            source.append(") {\n");
+            nested(depth + 1, maxDepth);
+            if (random.nextInt(4) == 0) {
+                nested(depth + 1, depth + 2);
+            }
+            indent(depth);
+            source.append("}\n");
+        }
+
+        private void parenthesized(int depth) {
+            if (depth == 0) {
+                source.append(random.nextBoolean() ? name() : String.valueOf(random.nextInt(10)));
+                return;
+            }
+            source.append('(');
+            parenthesized(depth - 1);
+            source.append(' ').append(OPERATORS[random.nextInt(OPERATORS.length)]).append(' ');
+            parenthesized(random.nextInt(depth));
+            source.append(')');
+        }
+    }
+}
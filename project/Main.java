@@ -45,7 +45,8 @@ public class Main {
     }
 
     private static void processInputFile(FileReader inFile) {
-        CmmParser P = new CmmParser(new Yylex(inFile));
+        Yylex scanner = new Yylex(inFile);
+        CmmParser P = new CmmParser(scanner);
         Symbol root = null; // the parser will return a Symbol whose value
                             // field is the translation of the root nonterminal
                             // (i.e., of the nonterminal "program")
@@ -59,7 +60,7 @@ public class Main {
             System.exit(-1);
         }
         ProgramNode astRoot = (ProgramNode) root.value;
-        astRoot.nameAnalysis();  // perform name analysis
+        astRoot.nameAnalysis(scanner.names());  // perform name analysis
         astRoot.typeCheck();     // type checking
         //astRoot.unparse(outFile, 0); // perform the unparsing
         if(!ErrMsg.getErr()){
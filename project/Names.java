@@ -0,0 +1,56 @@
+/**
+ * Names
+ *
+ * This class is the interner of the identifiers of one compilation: the
+ * scanner gives it the text of each ID it reads, and gets back the id of
+ * the name (numbered 0, 1, 2, ... in the order the names are first seen),
+ * from which get() gives the single String kept for the name. Since every
+ * name of the compilation then exists only once, the symbol tables
+ * compare names by identity instead of calling String.hashCode and
+ * String.equals again at each lookup.
+ *
+ * Each scanner has its own Names unless it is given one (see Yylex), and
+ * the Names goes away with the tokens and the AST of the compilation. A
+ * Names is not synchronized: it is only used by the thread of its
+ * compilation.
+ */
+final class Names {
+    private final StringPool pool = new StringPool();
+
+    /**
+     * Returns the id of the name buf[start .. start + len - 1],
+     * adding it if it is new.
+     */
+    int id(char[] buf, int start, int len) {
+        return pool.intern(buf, start, len);
+    }
+
+    /**
+     * Returns the id of the name 'name', adding it if it is new.
+     */
+    int id(String name) {
+        return pool.intern(name);
+    }
+
+    /**
+     * Returns the id of the name 'name', or -1 if it was never seen
+     * (the name is not added).
+     */
+    int find(String name) {
+        return pool.find(name);
+    }
+
+    /**
+     * Returns the name of id 'id'.
+     */
+    String get(int id) {
+        return pool.get(id);
+    }
+
+    /**
+     * Returns the number of distinct names seen.
+     */
+    int size() {
+        return pool.size();
+    }
+}
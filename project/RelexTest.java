@@ -0,0 +1,119 @@
+import java.io.*;
+import java.util.*;
+
+/**
+ * This program is to be used to test the IncrementalLexer. Random edits
+ * are made to the text of each file, and after each edit the tokens the
+ * IncrementalLexer keeps must be exactly the tokens of the new text
+ * scanned from its start. The pools of the lexer are compacted now and
+ * then, which must not change its tokens either.
+ *
+ * Usage: java RelexTest [-edits n] file ...
+ */
+public class RelexTest {
+    // what the edits insert: pieces of tokens, and chars that join,
+    // split or end tokens and lines
+    private static final String[] PIECES = {
+        "", "x", "int", " ", "\n", "\"", "\\", "//", "#", "12", "99999999999",
+        "-", "+", "=", "&", "|", "<", ">", "!", "_a1", "\"s\\n\"", "$", "\t", "\n\n"
+    };
+
+    public static void main(String[] args) throws IOException {
+        int edits = 1000;
+        List<String> files = new ArrayList<String>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-edits") && i + 1 < args.length) {
+                edits = Integer.parseInt(args[++i]);
+            } else {
+                files.add(args[i]);
+            }
+        }
+        if (files.isEmpty()) {
+            System.err.println("usage: java RelexTest [-edits n] file ...");
+            System.exit(-1);
+        }
+
+        PrintStream err = System.err;
+        System.setErr(new PrintStream(new ByteArrayOutputStream()));   // the scanner errors
+        Random random = new Random(42);
+        int failures = 0;
+        int count = 0;
+        long changed = 0;
+        long total = 0;
+        for (String file : files) {
+            IncrementalLexer lexer = new IncrementalLexer(read(file));
+            for (int n = 0; n < edits && failures == 0; n++) {
+                int length = lexer.text().length();
+                int start = random.nextInt(length + 1);
+                int end = Math.min(length, start + (random.nextInt(4) == 0 ? random.nextInt(20) : 0));
+                String insert = PIECES[random.nextInt(PIECES.length)];
+                IncrementalLexer.Change change = lexer.replace(start, end, insert);
+                count++;
+                changed += change.added;
+                total += lexer.size();
+                if (n % 100 == 99) {
+                    lexer.compact();
+                }
+
+                String failure = difference(lexer, new IncrementalLexer(lexer.text()));
+                if (failure != null) {
+                    err.println(file + ", edit " + (n + 1) + " (" + start + ".." + end + " -> \""
+                                + insert + "\"): " + failure);
+                    failures++;
+                }
+            }
+        }
+        System.setErr(err);
+
+        System.out.println(count + " edits of " + files.size() + " files: "
+                           + (failures == 0 ? "all tokens match" : failures + " edits differ")
+                           + String.format(" (%.2f of %.1f tokens changed per edit)",
+                                           (double) changed / Math.max(count, 1),
+                                           (double) total / Math.max(count, 1)));
+        if (failures != 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Returns the text of file 'file'
+     */
+    private static String read(String file) throws IOException {
+        StringBuilder text = new StringBuilder();
+        try (Reader in = new FileReader(file)) {
+            char[] buf = new char[4096];
+            for (int n = in.read(buf); n >= 0; n = in.read(buf)) {
+                text.append(buf, 0, n);
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Describes the first token of 'lexer' which is not the one of
+     * 'expected', or returns null if they have the same tokens
+     */
+    private static String difference(IncrementalLexer lexer, IncrementalLexer expected) {
+        for (int i = 0; i < Math.max(lexer.size(), expected.size()); i++) {
+            String token = i < lexer.size() ? describe(lexer, i) : "missing";
+            String other = i < expected.size() ? describe(expected, i) : "none";
+            if (!token.equals(other)) {
+                return "token " + (i + 1) + " is " + token + ", expected " + other;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the kind, offset, position and value of token 'i' of 'lexer'
+     */
+    private static String describe(IncrementalLexer lexer, int i) {
+        String str = lexer.kind(i) + " @" + lexer.offset(i) + " " + lexer.line(i) + ":" + lexer.charNum(i);
+        if (lexer.kind(i) == sym.ID || lexer.kind(i) == sym.STRINGLITERAL) {
+            str += " " + lexer.stringValue(i);
+        } else {
+            str += " " + lexer.value(i);
+        }
+        return str;
+    }
+}
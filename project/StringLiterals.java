@@ -0,0 +1,84 @@
+import java.util.*;
+
+/**
+ * StringLiterals
+ *
+ * This class is the pool of the string literals of one compilation: the
+ * scanner gives it the text of each string literal it reads (with its
+ * quotes and escaped characters, as in the source), and gets back the id
+ * of the literal (numbered 0, 1, 2, ... in the order the literals are
+ * first seen). The first time a literal is seen, its escaped characters
+ * are decoded once and for all; the later phases then work on the id:
+ *   text(id)   the literal as in the source (for the unparser)
+ *   value(id)  the string the literal stands for (for the code
+ *              generator, see Codegen.asciiz)
+ *
+ * Each scanner has its own StringLiterals unless it is given one (see
+ * Yylex), and the pool goes away with the tokens and the AST of the
+ * compilation. A StringLiterals is not synchronized: it is only used by
+ * the thread of its compilation.
+ */
+final class StringLiterals {
+    private final StringPool texts = new StringPool();
+    private String[] values = new String[64];
+
+    /**
+     * Returns the id of the string literal buf[start .. start + len - 1]
+     * (quotes included), adding it if it is new.
+     */
+    int id(char[] buf, int start, int len) {
+        int size = texts.size();
+        int id = texts.intern(buf, start, len);
+        if (id == size) {       // a new literal
+            if (id == values.length) {
+                values = Arrays.copyOf(values, 2 * values.length);
+            }
+            values[id] = decode(buf, start, len);
+        }
+        return id;
+    }
+
+    /**
+     * Returns the text of the string literal of id 'id', as in the source.
+     */
+    String text(int id) {
+        return texts.get(id);
+    }
+
+    /**
+     * Returns the string the string literal of id 'id' stands for.
+     */
+    String value(int id) {
+        return values[id];
+    }
+
+    /**
+     * Returns the number of distinct string literals seen.
+     */
+    int size() {
+        return texts.size();
+    }
+
+    /**
+     * Returns the string the literal buf[start .. start + len - 1] stands
+     * for: the chars between the quotes, with each escaped character
+     * (\n, \t, \', \", \? or \\) replaced with the character itself.
+     */
+    private static String decode(char[] buf, int start, int len) {
+        StringBuilder value = new StringBuilder(len);
+        int end = start + len - 1;      // the closing quote
+        for (int i = start + 1; i < end; i++) {
+            char c = buf[i];
+            if (c == '\\' && i + 1 < end) {
+                c = buf[++i];
+                if (c == 'n') {
+                    c = '\n';
+                } else if (c == 't') {
+                    c = '\t';
+                }
+            }
+            value.append(c);
+        }
+        return value.toString();
+    }
+}
@@ -0,0 +1,149 @@
+import java.util.*;
+
+/**
+ * StringPool
+ *
+ * This class keeps a single copy of each distinct string it is given and
+ * numbers them 0, 1, 2, ... in the order they are first seen. A string can
+ * be given as a slice of a char array (e.g., the buffer of the scanner), in
+ * which case no String is built unless the string is new.
+ */
+class StringPool {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private String[] strings;   // the strings, by id
+    private int[] hashes;       // the hash codes of the strings, by id
+    private int[] table;        // open-addressing table of ids (-1: empty)
+    private int size;
+
+    StringPool() {
+        strings = new String[INITIAL_CAPACITY / 2];
+        hashes = new int[INITIAL_CAPACITY / 2];
+        table = new int[INITIAL_CAPACITY];
+        Arrays.fill(table, -1);
+        size = 0;
+    }
+
+    /**
+     * Returns the id of the string buf[start .. start + len - 1],
+     * adding it to the pool if it is new.
+     */
+    int intern(char[] buf, int start, int len) {
+        int hash = 0;
+        for (int i = start; i < start + len; i++) {
+            hash = 31 * hash + buf[i];
+        }
+        int mask = table.length - 1;
+        int slot = mix(hash) & mask;
+        for (int id = table[slot]; id >= 0; id = table[slot]) {
+            if (hashes[id] == hash && matches(strings[id], buf, start, len)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return add(new String(buf, start, len), hash, slot);
+    }
+
+    /**
+     * Returns the id of the string 'str',
+     * adding it to the pool if it is new.
+     */
+    int intern(String str) {
+        int hash = str.hashCode();
+        int mask = table.length - 1;
+        int slot = mix(hash) & mask;
+        for (int id = table[slot]; id >= 0; id = table[slot]) {
+            if (strings[id] == str || (hashes[id] == hash && strings[id].equals(str))) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return add(str, hash, slot);
+    }
+
+    /**
+     * Returns the id of the string 'str', or -1 if it is not in the pool.
+     */
+    int find(String str) {
+        int hash = str.hashCode();
+        int mask = table.length - 1;
+        int slot = mix(hash) & mask;
+        for (int id = table[slot]; id >= 0; id = table[slot]) {
+            if (strings[id] == str || (hashes[id] == hash && strings[id].equals(str))) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the string of id 'id'.
+     */
+    String get(int id) {
+        return strings[id];
+    }
+
+    /**
+     * Returns the hash code of the string of id 'id'.
+     */
+    int hash(int id) {
+        return hashes[id];
+    }
+
+    /**
+     * Returns the number of strings in the pool.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Adds 'str', of hash code 'hash', to the pool (at slot 'slot'
+     * of the table) and returns its id.
+     */
+    private int add(String str, int hash, int slot) {
+        if (size == strings.length) {
+            strings = Arrays.copyOf(strings, 2 * size);
+            hashes = Arrays.copyOf(hashes, 2 * size);
+        }
+        int id = size++;
+        strings[id] = str;
+        hashes[id] = hash;
+        table[slot] = id;
+        if (2 * size > table.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    private void rehash() {
+        table = new int[2 * table.length];
+        Arrays.fill(table, -1);
+        int mask = table.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = mix(hashes[id]) & mask;
+            while (table[slot] >= 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = id;
+        }
+    }
+
+    private static boolean matches(String str, char[] buf, int start, int len) {
+        if (str.length() != len) {
+            return false;
+        }
+        for (int i = 0; i < len; i++) {
+            if (str.charAt(i) != buf[start + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int mix(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
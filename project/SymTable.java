@@ -3,6 +3,11 @@ import java.util.*;
 
 /**
  * A class for Symbol Table
+ *
+ * The names are the Strings kept by the Names of the compilation (such
+ * as the name of an IdNode, which the scanner took from there), so that
+ * each scope can be an IdentityHashMap: a lookup costs no String.hashCode
+ * and no String.equals.
  */
 public class SymTable {
 
@@ -13,7 +18,7 @@ public class SymTable {
      */
     public SymTable() {
         bindings = new ArrayList<Map<String,SymInfo>>();
-        bindings.add(new HashMap<String,SymInfo>());
+        bindings.add(new IdentityHashMap<String,SymInfo>());
     }
 
     /**
@@ -34,7 +39,7 @@ public class SymTable {
      * Add a new inner scope
      */
     public void addScope() {
-        bindings.add(0, new HashMap<String,SymInfo>());
+        bindings.add(0, new IdentityHashMap<String,SymInfo>());
     }
 
     /**
@@ -0,0 +1,204 @@
+import java.io.*;
+import java.util.Arrays;
+import java_cup.runtime.*;
+
+/**
+ * TokenBuffer
+ *
+ * This class holds the tokens of a whole input, as filled by the bulk mode
+ * of the scanner (Yylex.lex). The tokens are kept in parallel arrays
+ * instead of a Symbol and a TokenVal each:
+ *   kinds      the kind of each token (a constant of class sym)
+ *   positions  the line number (high int) and the character number
+ *              (low int) of each token
+ *   values     the value of an INTLITERAL, the id of the name of an ID
+ *              (in the Names of the buffer), or the id of a
+ *              STRINGLITERAL (in the StringLiterals of the buffer)
+ *
+ * The tokens are read back through a Cursor, which is also a scanner, so
+ * that a parser can be run on the buffer.
+ */
+class TokenBuffer {
+    private static final int INITIAL_CAPACITY = 256;
+
+    private int[] kinds;
+    private long[] positions;
+    private int[] values;
+    private int size;
+    private final Names names;
+    private final StringLiterals literals;
+
+    /**
+     * Builds an empty buffer of the tokens of a scanner whose pools are
+     * 'names' and 'literals'.
+     */
+    TokenBuffer(Names names, StringLiterals literals) {
+        this.names = names;
+        this.literals = literals;
+        kinds = new int[INITIAL_CAPACITY];
+        positions = new long[INITIAL_CAPACITY];
+        values = new int[INITIAL_CAPACITY];
+        size = 0;
+    }
+
+    /**
+     * Returns the tokens of 'in', scanned in bulk mode.
+     */
+    static TokenBuffer lex(Reader in) throws IOException {
+        Yylex scanner = new Yylex(in);
+        TokenBuffer tokens = new TokenBuffer(scanner.names(), scanner.literals());
+        scanner.lex(tokens);
+        tokens.trim();
+        return tokens;
+    }
+
+    /**
+     * Adds a token of kind 'kind', at line 'line' and
+     * character 'ch', with value 'value'.
+     */
+    void add(int kind, int line, int ch, int value) {
+        if (size == kinds.length) {
+            int capacity = Math.max(2 * size, INITIAL_CAPACITY);
+            kinds = Arrays.copyOf(kinds, capacity);
+            positions = Arrays.copyOf(positions, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        kinds[size] = kind;
+        positions[size] = ((long) line << 32) | (ch & 0xFFFFFFFFL);
+        values[size] = value;
+        size++;
+    }
+
+    /**
+     * Shrinks the arrays to the number of tokens.
+     */
+    void trim() {
+        kinds = Arrays.copyOf(kinds, size);
+        positions = Arrays.copyOf(positions, size);
+        values = Arrays.copyOf(values, size);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the names of the IDs of the buffer.
+     */
+    Names names() {
+        return names;
+    }
+
+    /**
+     * Returns the string literals of the STRINGLITERALs of the buffer.
+     */
+    StringLiterals literals() {
+        return literals;
+    }
+
+    int kind(int i) {
+        return kinds[i];
+    }
+
+    int line(int i) {
+        return (int) (positions[i] >>> 32);
+    }
+
+    int charNum(int i) {
+        return (int) positions[i];
+    }
+
+    /**
+     * Returns the value of the INTLITERAL token 'i', the id in names() of
+     * the ID token 'i', or the id in literals() of the STRINGLITERAL
+     * token 'i'.
+     */
+    int value(int i) {
+        return values[i];
+    }
+
+    /**
+     * Returns the text of the ID or STRINGLITERAL token 'i'.
+     */
+    String stringValue(int i) {
+        return kinds[i] == sym.ID ? names.get(values[i]) : literals.text(values[i]);
+    }
+
+    /**
+     * Returns the Symbol the scanner would have returned for token 'i'.
+     */
+    Symbol symbol(int i) {
+        int line = line(i);
+        int ch = charNum(i);
+        switch (kinds[i]) {
+        case sym.ID:
+            return new Symbol(sym.ID, new IdTokenVal(line, ch, stringValue(i), values[i]));
+        case sym.INTLITERAL:
+            return new Symbol(sym.INTLITERAL, new IntLitTokenVal(line, ch, values[i]));
+        case sym.STRINGLITERAL:
+            return new Symbol(sym.STRINGLITERAL, new StrLitTokenVal(line, ch, literals, values[i]));
+        default:
+            return new Symbol(kinds[i], new TokenVal(line, ch));
+        }
+    }
+
+    /**
+     * Returns a cursor before the first token of the buffer.
+     */
+    Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * A Cursor walks through the tokens of the buffer. next() moves it to
+     * the next token, whose fields are then read in place; next_token()
+     * does the same and returns the token as a Symbol, for a parser.
+     */
+    class Cursor implements Scanner {
+        private int index = -1;
+
+        /**
+         * Moves to the next token and returns true,
+         * or returns false if there is none left.
+         */
+        boolean next() {
+            if (index + 1 >= size) {
+                index = size;
+                return false;
+            }
+            index++;
+            return true;
+        }
+
+        /**
+         * Returns the index of the current token in the buffer.
+         */
+        int index() {
+            return index;
+        }
+
+        int kind() {
+            return kinds[index];
+        }
+
+        int line() {
+            return TokenBuffer.this.line(index);
+        }
+
+        int charNum() {
+            return TokenBuffer.this.charNum(index);
+        }
+
+        int value() {
+            return values[index];
+        }
+
+        String stringValue() {
+            return TokenBuffer.this.stringValue(index);
+        }
+
+        public Symbol next_token() {
+            return next() ? symbol(index) : new Symbol(sym.EOF);
+        }
+    }
+}
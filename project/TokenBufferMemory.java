@@ -0,0 +1,98 @@
+import java.io.*;
+import java.util.*;
+import java_cup.runtime.*;
+
+/**
+ * This program compares the heap taken by the tokens of a large input when
+ * the scanner returns them one by one (a Symbol and a TokenVal each) and
+ * when it fills a TokenBuffer. The input is made of the given files,
+ * repeated 'copies' times. It also checks that both give the same tokens.
+ *
+ * Usage: java TokenBufferMemory copies file ...
+ */
+public class TokenBufferMemory {
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: java TokenBufferMemory copies file ...");
+            System.exit(-1);
+        }
+        int copies = Integer.parseInt(args[0]);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < copies; i++) {
+            for (int j = 1; j < args.length; j++) {
+                try (BufferedReader in = new BufferedReader(new FileReader(args[j]))) {
+                    String line;
+                    while ((line = in.readLine()) != null) {
+                        text.append(line).append('\n');
+                    }
+                }
+            }
+        }
+        char[] source = text.toString().toCharArray();
+        text = null;
+
+        // the tokens scanned one by one
+        PrintStream err = System.err;
+        System.setErr(new PrintStream(new ByteArrayOutputStream()));   // the scanner errors
+        long base = usedHeap();
+        List<Symbol> symbols = new ArrayList<Symbol>();
+        Yylex scanner = new Yylex(new CharArrayReader(source));
+        for (Symbol token = scanner.next_token(); token.sym != sym.EOF; token = scanner.next_token()) {
+            symbols.add(token);
+        }
+        scanner = null;
+        long symbolBytes = usedHeap() - base;
+
+        // the same tokens in a TokenBuffer
+        base = usedHeap();
+        TokenBuffer tokens = TokenBuffer.lex(new CharArrayReader(source));
+        long bufferBytes = usedHeap() - base;
+        System.setErr(err);
+
+        if (tokens.size() != symbols.size()) {
+            throw new IllegalStateException("the scanners disagree: " + symbols.size() + " / " + tokens.size() + " tokens");
+        }
+        for (int i = 0; i < tokens.size(); i++) {
+            if (!describe(symbols.get(i)).equals(describe(tokens.symbol(i)))) {
+                throw new IllegalStateException("token " + i + ": " + describe(symbols.get(i)) + " / " + describe(tokens.symbol(i)));
+            }
+        }
+
+        int count = tokens.size();
+        System.out.printf("%d chars, %d tokens%n", source.length, count);
+        System.out.printf("%-24s %12d bytes (%.1f bytes/token)%n", "Symbol + TokenVal", symbolBytes, (double) symbolBytes / Math.max(count, 1));
+        System.out.printf("%-24s %12d bytes (%.1f bytes/token)%n", "TokenBuffer", bufferBytes, (double) bufferBytes / Math.max(count, 1));
+    }
+
+    /**
+     * Returns the kind, position and value of 'token'
+     */
+    private static String describe(Symbol token) {
+        TokenVal val = (TokenVal) token.value;
+        String str = token.sym + " " + val.linenum + ":" + val.charnum;
+        if (val instanceof IdTokenVal) {
+            str += " " + ((IdTokenVal) val).idVal;
+        } else if (val instanceof IntLitTokenVal) {
+            str += " " + ((IntLitTokenVal) val).intVal;
+        } else if (val instanceof StrLitTokenVal) {
+            str += " " + ((StrLitTokenVal) val).strVal;
+        }
+        return str;
+    }
+
+    /**
+     * Returns the heap in use once the garbage has been collected
+     */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
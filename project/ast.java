@@ -129,11 +129,13 @@ class ProgramNode extends ASTnode {
      * nameAnalysis
      * Creates an empty symbol table for the outermost scope, then processes
      * all of the globals, struct defintions, and functions in the program.
+     * names are the names the scanner gave to the IDs of the program.
      */
-    public void nameAnalysis() {
+    public void nameAnalysis(Names names) {
         SymTable symTab = new SymTable();
         myDeclList.nameAnalysis(symTab);
-        if (symTab.lookupGlobal("main") == null) {
+        int main = names.find("main");
+        if (main < 0 || symTab.lookupGlobal(names.get(main)) == null) {
             ErrMsg.fatal(0, 0,
                     "No main function");
 
@@ -152,6 +154,7 @@ class ProgramNode extends ASTnode {
     }
 
     public void codeGen() {
+        ExpNode.clearStringLabels();
         myDeclList.codeGen();
     }
 
@@ -1686,7 +1689,32 @@ abstract class ExpNode extends ASTnode {
     public void codeGen() {
     }
 
-    public static Hashtable<String, String> stringTable = new Hashtable<String, String>();
+    // the label of the data of each string literal of the program being
+    // generated, by id in the StringLiterals of its scanner
+    private static String[] stringLabels = new String[64];
+
+    /**
+     * Forgets the labels of the string literals, before the code of
+     * another program (whose literals have other ids) is generated.
+     */
+    static void clearStringLabels() {
+        Arrays.fill(stringLabels, null);
+    }
+
+    /**
+     * Returns the label of the data of the string literal of id 'id',
+     * or null if it has not been generated yet.
+     */
+    static String stringLabel(int id) {
+        return id < stringLabels.length ? stringLabels[id] : null;
+    }
+
+    static void setStringLabel(int id, String label) {
+        if (id >= stringLabels.length) {
+            stringLabels = Arrays.copyOf(stringLabels, Math.max(2 * stringLabels.length, id + 1));
+        }
+        stringLabels[id] = label;
+    }
 }
 
 class IntLitNode extends ExpNode {
@@ -1732,10 +1760,12 @@ class IntLitNode extends ExpNode {
 }
 
 class StringLitNode extends ExpNode {
-    public StringLitNode(int lineNum, int charNum, String strVal) {
+    public StringLitNode(int lineNum, int charNum, int strId, String strVal, String value) {
         myLineNum = lineNum;
         myCharNum = charNum;
+        myStrId = strId;
         myStrVal = strVal;
+        myValue = value;
     }
 
     /**
@@ -1764,12 +1794,12 @@ class StringLitNode extends ExpNode {
     }
 
     public void codeGen() {
-        String label = stringTable.get(this.myStrVal);
+        String label = stringLabel(this.myStrId);
         if (label == null) {
             String newLabel = Codegen.nextLabel();
-            stringTable.put(this.myStrVal, newLabel);
+            setStringLabel(this.myStrId, newLabel);
             Codegen.p.println("\t.data");
-            Codegen.generateLabeled(newLabel, ".asciiz " + myStrVal, "");
+            Codegen.generateLabeled(newLabel, ".asciiz " + Codegen.asciiz(myValue), "");
             Codegen.p.println("\t.text");
             Codegen.generate("la", Codegen.T0, newLabel);
             Codegen.genPush(Codegen.T0);
@@ -1785,7 +1815,9 @@ class StringLitNode extends ExpNode {
 
     private int myLineNum;
     private int myCharNum;
-    private String myStrVal;
+    private int myStrId;        // the id of the literal (see StringLiterals)
+    private String myStrVal;    // the literal as in the source
+    private String myValue;     // the string it stands for
 }
 
 class TrueNode extends ExpNode {
@@ -1883,7 +1915,8 @@ class IdNode extends ExpNode {
     }
 
     /**
-     * Return the name of this ID.
+     * Return the name of this ID (the String the Names of the scanner
+     * keep for it, see IdTokenVal).
      */
     public String name() {
         return myStrVal;